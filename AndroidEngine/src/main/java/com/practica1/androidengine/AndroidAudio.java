@@ -5,10 +5,14 @@ import android.content.res.AssetManager;
 import android.media.SoundPool;
 import android.content.res.AssetFileDescriptor;
 
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Audio;
+import com.practica1.engine.ResourceManager;
 import com.practica1.engine.Sound;
+import com.practica1.engine.SoundHandle;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Clase AndroidAudio que implementa la interfaz Audio.
@@ -20,14 +24,21 @@ public class AndroidAudio implements Audio {
     private SoundPool soundPool; // Manejador de sonidos para reproducción eficiente
     private final String root = "sounds/"; // Ruta raíz donde se encuentran los archivos de sonido
     private final float MAX_VOLUME = 1.0f; // Volumen máximo para los sonidos
+    private static final int WAV_HEADER_SIZE = 44; // Cabecera RIFF/fmt/data de un WAV PCM
+    private ResourceManager resources; // Caché compartida de sonidos
+    private AsyncLoader loader; // Cargas en segundo plano
 
     /**
      * Constructor protegido de AndroidAudio.
      * Inicializa el `SoundPool` y asigna el `AssetManager` para cargar sonidos desde los assets.
      * @param assetManager AssetManager para acceder a los archivos de sonido.
+     * @param resources Caché de recursos compartida con los gráficos.
+     * @param loader Cargador en segundo plano compartido con los gráficos.
      */
-    protected AndroidAudio(AssetManager assetManager) {
+    protected AndroidAudio(AssetManager assetManager, ResourceManager resources, AsyncLoader loader) {
         this.assetManager = assetManager;
+        this.resources = resources;
+        this.loader = loader;
 
         // Crea un SoundPool con un máximo de 10 flujos simultáneos
         this.soundPool = new SoundPool.Builder()
@@ -36,12 +47,40 @@ public class AndroidAudio implements Audio {
     }
 
     /**
-     * Carga un nuevo sonido desde los assets.
+     * Obtiene un sonido de los assets. Si ya está cargado en el SoundPool se reutiliza.
      * @param file Nombre del archivo de sonido dentro del directorio `sounds/`.
      * @return Objeto Sound asociado al archivo cargado.
      */
     @Override
     public Sound newSound(String file) {
+        return resources.acquire("sound:" + file, () -> loadSound(file),
+                AndroidSound::getByteSize,
+                sound -> soundPool.unload(sound.getSoundID()), // Se descarga del SoundPool al expulsarlo
+                AndroidSound::isPlaying); // Pero no mientras suena (p. ej. tras salir de su escena)
+    }
+
+    /**
+     * Carga un sonido en segundo plano.
+     * @param file Nombre del archivo de sonido dentro del directorio `sounds/`.
+     * @return Handle que no suena hasta que la carga termina.
+     */
+    @Override
+    public SoundHandle loadSoundAsync(String file) {
+        return loader.load(new SoundHandle(), () -> newSound(file));
+    }
+
+    // Sonido real detrás de un handle (null si aún no está listo)
+    private static AndroidSound unwrap(Sound s) {
+        if (s instanceof SoundHandle) s = ((SoundHandle) s).get();
+        return (AndroidSound) s;
+    }
+
+    /**
+     * Carga un nuevo sonido desde los assets en el SoundPool.
+     * @param file Nombre del archivo de sonido dentro del directorio `sounds/`.
+     * @return Objeto AndroidSound asociado al archivo cargado.
+     */
+    private AndroidSound loadSound(String file) {
         AndroidSound sound = null; // Objeto para almacenar el sonido cargado
         int soundID = -1; // Identificador del sonido
 
@@ -53,7 +92,8 @@ public class AndroidAudio implements Audio {
             soundID = soundPool.load(assetDescriptor, 1);
 
             // Crea un objeto AndroidSound asociado al ID
-            sound = new AndroidSound(soundID);
+            sound = new AndroidSound(soundID, assetDescriptor.getLength(),
+                    wavDuration(root + file, assetDescriptor.getLength()));
         } catch (IOException e) {
             // Lanza una excepción si el sonido no se puede cargar
             throw new RuntimeException("No se pudo cargar el sonido " + file);
@@ -62,6 +102,30 @@ public class AndroidAudio implements Audio {
         return sound; // Devuelve el objeto Sound
     }
 
+    /**
+     * Estima la duración de un WAV con el byte rate de su cabecera.
+     * @param path Ruta del archivo en los assets.
+     * @param length Tamaño del archivo en bytes.
+     * @return Duración en nanosegundos, o 0 si no es un WAV que se pueda leer.
+     */
+    private long wavDuration(String path, long length) {
+        byte[] header = new byte[WAV_HEADER_SIZE];
+        try (InputStream is = assetManager.open(path)) {
+            int read = 0;
+            while (read < header.length) {
+                int n = is.read(header, read, header.length - read);
+                if (n < 0) return 0;
+                read += n;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        if (header[0] != 'R' || header[1] != 'I' || header[2] != 'F' || header[3] != 'F') return 0;
+        long byteRate = (header[28] & 0xffL) | (header[29] & 0xffL) << 8 | (header[30] & 0xffL) << 16 | (header[31] & 0xffL) << 24;
+        if (byteRate <= 0) return 0;
+        return (length - WAV_HEADER_SIZE) * 1_000_000_000L / byteRate;
+    }
+
     /**
      * Reproduce un sonido.
      * @param s Objeto Sound a reproducir.
@@ -69,11 +133,14 @@ public class AndroidAudio implements Audio {
      */
     @Override
     public void playSound(Sound s, boolean loop) {
+        AndroidSound sound = unwrap(s);
+        if (sound == null) return; // Todavía cargándose
         int loopFlag = loop ? -1 : 0; // -1 para bucle infinito, 0 para no repetir
 
         // Reproduce el sonido utilizando el ID asociado
+        sound.played(loop);
         int id = this.soundPool.play(
-                ((AndroidSound) s).getSoundID(), // ID del sonido
+                sound.getSoundID(), // ID del sonido
                 MAX_VOLUME, // Volumen en el canal izquierdo
                 MAX_VOLUME, // Volumen en el canal derecho
                 1, // Prioridad del sonido
@@ -88,7 +155,11 @@ public class AndroidAudio implements Audio {
      */
     @Override
     public void stopSound(Sound s) {
-        this.soundPool.stop(((AndroidSound) s).getSoundID());
+        AndroidSound sound = unwrap(s);
+        if (sound != null) {
+            this.soundPool.stop(sound.getSoundID());
+            sound.stopped();
+        }
     }
 
     /**
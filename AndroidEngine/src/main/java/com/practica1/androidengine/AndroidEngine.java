@@ -1,20 +1,35 @@
 package com.practica1.androidengine;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.graphics.Canvas;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
 import android.util.Log;
 import android.view.SurfaceView;
 
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Audio;
 import com.practica1.engine.Engine;
 import com.practica1.engine.File;
+import com.practica1.engine.FrameProfiler;
 import com.practica1.engine.Graphics;
+import com.practica1.engine.JobSystem;
+import com.practica1.engine.ResourceManager;
 import com.practica1.engine.State;
+import com.practica1.engine.TaskScheduler;
 import com.practica1.engine.TouchEvent;
 
 import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
 import java.util.List;
 
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 /**
  * Clase AndroidEngine que implementa el motor de juego.
  * Esta clase centraliza la gestión de gráficos, entrada, audio y estados del juego.
@@ -22,7 +37,7 @@ import java.util.List;
 public class AndroidEngine implements Runnable, Engine {
 
     private SurfaceView surfaceView; // Vista para renderizar
-    private State state; // Estado actual del juego
+    private volatile State state; // Estado actual del juego (puede cambiarse desde otro hilo)
     private SurfaceView renderView; // Vista para dibujar gráficos
     private AndroidGraphics gr; // Gestión de gráficos
     private AndroidAudio audio; // Gestión de audio
@@ -32,6 +47,17 @@ public class AndroidEngine implements Runnable, Engine {
     private Context context; // Contexto de la aplicación
     private Canvas canvas; // Canvas para dibujar
     private List<TouchEvent> events; // Lista de eventos táctiles
+    private final FrameProfiler profiler = new FrameProfiler(); // Tiempos por fase de cada frame
+    private final TaskScheduler scheduler = new TaskScheduler(); // Trabajo diferido en el tiempo libre del frame
+    private final JobSystem jobs = new JobSystem(); // Trabajo en hilos de fondo
+    private final ResourceManager resources = new ResourceManager(); // Caché de imágenes, fuentes y sonidos
+    private final AsyncLoader loader = new AsyncLoader(jobs, resources); // Cargas de recursos en segundo plano
+    private SecretKey saveKey; // Clave de los guardados (se crea la primera vez que se pide)
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String SAVE_KEY_ALIAS = "practica1.save"; // Alias de la clave en el KeyStore
+    private static final String SAVE_KEY_FILE = "save.key"; // Clave local si no hay KeyStore
+    private static final long FRAME_NANOS = 1_000_000_000L / 60; // Duración objetivo de un frame
+    private static final long TASK_MARGIN = 1_000_000L; // Margen que se deja libre al final del frame
 
     /**
      * Constructor de AndroidEngine.
@@ -41,12 +67,17 @@ public class AndroidEngine implements Runnable, Engine {
     public AndroidEngine(SurfaceView renderView, Context context) {
         this.context = context;
         this.renderView = renderView;
-        this.gr = new AndroidGraphics(renderView, context); // Inicializa el motor gráfico
+        // Presupuesto de recursos según la memoria que Android da a la app (menos en dispositivos con poca RAM)
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (am != null) {
+            resources.setBudget(am.getMemoryClass() * 1024L * 1024 / (am.isLowRamDevice() ? 8 : 4));
+        }
+        this.gr = new AndroidGraphics(renderView, context, resources, loader); // Inicializa el motor gráfico
         this.input = new AndroidInput(gr); // Inicializa la entrada táctil
         this.renderView.setOnTouchListener(this.input); // Vincula el manejador de entrada táctil
         this.renderView.setClickable(true);
         this.renderView.setFocusable(true);
-        this.audio = new AndroidAudio(context.getAssets()); // Inicializa el motor de audio
+        this.audio = new AndroidAudio(context.getAssets(), resources, loader); // Inicializa el motor de audio
     }
 
     /** Métodos de la interfaz Engine **/
@@ -66,6 +97,68 @@ public class AndroidEngine implements Runnable, Engine {
         state = scene; // Cambia el estado actual del juego
     }
 
+    @Override
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    @Override
+    public TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public JobSystem getJobs() {
+        return jobs;
+    }
+
+    @Override
+    public ResourceManager getResources() {
+        return resources;
+    }
+
+    @Override
+    public AsyncLoader getLoader() {
+        return loader;
+    }
+
+    /**
+     * Clave de los guardados. Se genera la primera vez en el AndroidKeyStore, que no deja sacarla
+     * del dispositivo, así que un guardado editado o copiado de otro móvil no pasa la comprobación.
+     * Si el KeyStore no está disponible se usa una clave aleatoria en el almacenamiento interno.
+     */
+    @Override
+    public synchronized SecretKey getSaveKey() {
+        if (saveKey == null) {
+            try {
+                KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+                keyStore.load(null);
+                if (!keyStore.containsAlias(SAVE_KEY_ALIAS)) {
+                    KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_HMAC_SHA256, KEYSTORE);
+                    generator.init(new KeyGenParameterSpec.Builder(SAVE_KEY_ALIAS, KeyProperties.PURPOSE_SIGN).build());
+                    generator.generateKey();
+                }
+                saveKey = (SecretKey) keyStore.getKey(SAVE_KEY_ALIAS, null);
+            } catch (GeneralSecurityException | IOException e) {
+                Log.e("SaveKey", "KeyStore no disponible, se usa una clave local", e);
+                saveKey = localSaveKey();
+            }
+        }
+        return saveKey;
+    }
+
+    // Clave aleatoria guardada en el almacenamiento interno (solo si falla el KeyStore)
+    private SecretKey localSaveKey() {
+        File file = getInternalFile(SAVE_KEY_FILE);
+        byte[] key = file.readBytes();
+        if (key == null || key.length != 32) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            file.writeBytes(key);
+        }
+        return new SecretKeySpec(key, KeyProperties.KEY_ALGORITHM_HMAC_SHA256);
+    }
+
     @Override
     public File getAssetsFile(String path) {
         return new AndroidFile(path, context, false); // Obtiene un archivo desde los assets
@@ -114,27 +207,44 @@ public class AndroidEngine implements Runnable, Engine {
 
             double elapsedTime = (double) nanoElapsedTime / 1.0E9; // Convierte a segundos
 
-            if (this.state != null) {
+            profiler.beginFrame();
+            jobs.runCompletions(); // Callbacks de trabajos terminados en segundo plano
+            profiler.mark(FrameProfiler.Phase.JOBS);
+            // Se toma la escena una sola vez por frame: si otro hilo la cambia, el cambio
+            // se aplica entero en el frame siguiente
+            State current = this.state;
+            if (current != null) {
                 List<TouchEvent> events = this.input.getTouchEvents(); // Obtiene eventos táctiles
                 for (TouchEvent e : events) {
-                    realToLogic(e); // Convierte coordenadas físicas a lógicas
+                    realToLogic(e, current); // Convierte coordenadas físicas a lógicas
                 }
+                profiler.mark(FrameProfiler.Phase.INPUT);
 
-                state.handleInput(events); // Maneja entrada
-                state.update(elapsedTime); // Actualiza el estado
+                current.handleInput(events); // Maneja entrada
+                profiler.mark(FrameProfiler.Phase.HANDLE_INPUT);
+                current.update(elapsedTime); // Actualiza el estado
+                profiler.mark(FrameProfiler.Phase.UPDATE);
             }
 
             if (currentTime - informePrevio > 1_000_000_000L) {
                 long fps = frames * 1_000_000_000L / (currentTime - informePrevio); // Calcula FPS
+                profiler.setFps((int) fps);
                 frames = 0;
                 informePrevio = currentTime;
             }
             ++frames;
 
             // Renderiza el estado actual
-            gr.prepareFrame(state.getW(), state.getH());
-            state.render(gr);
+            gr.prepareFrame(current.getW(), current.getH());
+            current.render(gr);
+            profiler.mark(FrameProfiler.Phase.RENDER);
             gr.endFrame();
+            profiler.mark(FrameProfiler.Phase.PRESENT);
+
+            // Tareas diferidas con el tiempo que sobra hasta el siguiente frame
+            scheduler.runFrame(currentTime + FRAME_NANOS - TASK_MARGIN);
+            profiler.mark(FrameProfiler.Phase.TASKS);
+            profiler.endFrame();
         }
     }
 
@@ -155,6 +265,7 @@ public class AndroidEngine implements Runnable, Engine {
                 Log.e("AndroidEngine", "Error al detener el hilo de renderizado: " + e.getMessage());
             }
         }
+        scheduler.runAll(); // El trabajo diferido que quede no se pierde
 
         if (canvas != null) {
             canvas = null;
@@ -167,11 +278,21 @@ public class AndroidEngine implements Runnable, Engine {
         Log.i("AndroidEngine", "Motor detenido y recursos liberados correctamente.");
     }
 
+    /**
+     * Cierra el motor al destruir la actividad: para el bucle y los hilos del JobSystem.
+     * Los trabajos ya encolados (p. ej. un guardado) terminan; sus callbacks ya no se ejecutan.
+     */
+    public void onDestroy() {
+        onStop();
+        jobs.shutdown();
+    }
+
     /**
      * Convierte coordenadas físicas a coordenadas lógicas.
      * @param e Evento táctil a convertir.
+     * @param state Escena del frame actual, que define el tamaño lógico.
      */
-    private void realToLogic(TouchEvent e) {
+    private void realToLogic(TouchEvent e, State state) {
         int w = gr.getWidth();
         int h = gr.getHeight();
         float wProportion = (float) w / state.getW();
@@ -190,7 +311,8 @@ public class AndroidEngine implements Runnable, Engine {
     }
 
     /**
-     * Pausa el motor.
+     * Pausa el motor. Con el bucle ya parado se termina el trabajo diferido pendiente del
+     * TaskScheduler, que si no se quedaría sin ejecutar hasta volver.
      */
     public void pause() {
         if (this.running) {
@@ -205,6 +327,7 @@ public class AndroidEngine implements Runnable, Engine {
                 }
             }
         }
+        scheduler.runAll();
     }
 
     /**
@@ -1,19 +1,26 @@
 package com.practica1.androidengine;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.util.Log;
 
+import com.practica1.engine.AtomicOutputStream;
 import com.practica1.engine.File;
 
-import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Clase AndroidFile que implementa la interfaz File.
@@ -39,90 +46,192 @@ public class AndroidFile implements File {
     }
 
     /**
-     * Obtiene el contenido del archivo como una cadena.
-     * Si el archivo está en los assets, lo lee directamente.
-     * Si está en almacenamiento interno, usa un método especializado.
-     * @return Contenido del archivo como cadena o `null` si ocurre un error.
+     * Obtiene el contenido del archivo como una cadena UTF-8, tal cual (con sus saltos de línea).
+     * @return Contenido del archivo como cadena o `null` si no existe o ocurre un error.
      */
     @Override
     public String getContent() {
-        if (!internal) { // Si el archivo está en los assets
-            AssetManager assetManager = context.getAssets();
-            try (InputStream is = assetManager.open(path)) {
-                int size = is.available(); // Obtiene el tamaño del archivo
-                byte[] buffer = new byte[size]; // Crea un buffer para leer los datos
-                is.read(buffer); // Lee los datos en el buffer
-                return new String(buffer, StandardCharsets.UTF_8); // Devuelve los datos como cadena
-            } catch (IOException e) {
-                Log.e("Archivo", "Error al leer el archivo: " + e.getMessage());
-                return null;
+        byte[] data = readBytes();
+        return (data == null) ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Establece el contenido del archivo en el almacenamiento interno (de forma atómica, ver openOutput).
+     * @param data Cadena de texto a escribir en el archivo, en UTF-8.
+     */
+    @Override
+    public void setContent(String data) {
+        writeBytes(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lee el archivo completo en bytes, sin decodificarlo como texto.
+     * Lee hasta el final del flujo en lugar de fiarse de `available()` o de una sola llamada a `read()`,
+     * que pueden devolver menos bytes de los que tiene el archivo.
+     * @return Contenido del archivo o `null` si no existe o no se puede leer.
+     */
+    @Override
+    public byte[] readBytes() {
+        try (InputStream is = openInput()) {
+            return readFully(is, is.available()); // available() solo como tamaño aproximado
+        } catch (FileNotFoundException e) {
+            Log.d("Archivo", "Archivo no encontrado: " + path);
+            return null;
+        } catch (IOException e) {
+            Log.e("Archivo", "Error al leer el archivo: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tamaño del archivo. Los assets sin comprimir lo dan por su descriptor; los comprimidos hay que
+     * recorrerlos enteros.
+     * @return Tamaño en bytes o -1 si no existe.
+     */
+    @Override
+    public long size() {
+        if (internal) {
+            java.io.File file = context.getFileStreamPath(path);
+            return file.isFile() ? file.length() : -1;
+        }
+        return assetSize(context.getAssets(), path);
+    }
+
+    /**
+     * Tamaño de un asset, como size(). También lo usa AndroidFontRegistry, que solo tiene el AssetManager.
+     * @param assets AssetManager de la aplicación.
+     * @param path Ruta del asset.
+     * @return Tamaño en bytes o -1 si no existe.
+     */
+    static long assetSize(AssetManager assets, String path) {
+        try (AssetFileDescriptor afd = assets.openFd(path)) {
+            return afd.getLength();
+        } catch (IOException e) {
+            // Asset comprimido (o inexistente): no tiene descriptor propio
+        }
+        try (InputStream is = assets.open(path)) {
+            byte[] buffer = new byte[8192];
+            long size = 0;
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                size += n;
             }
-        } else { // Si el archivo está en almacenamiento interno
-            return readJsonFromInternalStorage();
+            return size;
+        } catch (IOException e) {
+            return -1;
         }
     }
 
     /**
-     * Establece el contenido del archivo, escribiendo datos en él.
-     * Escribe en almacenamiento interno o en archivos generales según el indicador `internal`.
-     * @param data Cadena de texto a escribir en el archivo.
+     * Mapea el archivo en memoria de solo lectura. Los archivos internos y los assets sin comprimir se
+     * mapean sin copiarlos (el mapeo sigue vivo al cerrar el canal); los assets comprimidos en el APK no
+     * se pueden mapear y se leen enteros en un buffer.
+     * @return Buffer de solo lectura con el contenido del archivo.
+     * @throws FileNotFoundException Si el archivo no existe.
      */
     @Override
-    public void setContent(String data) {
-        if (!internal) { // Si el archivo no es interno
-            java.io.File file = new java.io.File(context.getFilesDir(), path);
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                fos.write(data.getBytes(StandardCharsets.UTF_8)); // Escribe los datos en UTF-8
-                fos.flush(); // Asegura que los datos se escriban en el archivo
-                Log.d("Archivo", "Contenido escrito correctamente en el archivo: " + file.getAbsolutePath());
-            } catch (IOException e) {
-                Log.e("Archivo", "Error al escribir en el archivo: " + e.getMessage());
+    public ByteBuffer map() throws IOException {
+        if (internal) {
+            try (FileInputStream fis = context.openFileInput(path); FileChannel channel = fis.getChannel()) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        try (AssetFileDescriptor afd = context.getAssets().openFd(path);
+             FileInputStream fis = afd.createInputStream();
+             FileChannel channel = fis.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength());
+        } catch (FileNotFoundException e) {
+            // Asset comprimido: se lee entero (si no existe, open() lanza FileNotFoundException)
+            try (InputStream is = context.getAssets().open(path)) {
+                return ByteBuffer.wrap(readFully(is, -1)).asReadOnlyBuffer();
             }
-        } else { // Si el archivo es interno
-            saveJsonToInternalStorage(data);
         }
     }
 
     /**
-     * Guarda una cadena JSON en almacenamiento interno.
-     * @param jsonString Cadena de texto JSON a guardar.
+     * Escribe los bytes en el almacenamiento interno de la aplicación de forma atómica (ver openOutput).
+     * @param data Bytes a escribir en el archivo.
      */
-    private void saveJsonToInternalStorage(String jsonString) {
-        try {
-            FileOutputStream fos = context.openFileOutput(path, Context.MODE_PRIVATE);
-            fos.write(jsonString.getBytes()); // Escribe los datos en el archivo
-            fos.close(); // Cierra el archivo
-            Log.d("JsonSave", "JSON saved to internal storage.");
+    @Override
+    public void writeBytes(byte[] data) {
+        try (AtomicOutputStream out = openOutput()) {
+            out.write(data);
+            out.commit();
         } catch (IOException e) {
-            Log.e("JsonSave", "Error saving JSON to internal storage", e);
+            Log.e("Archivo", "Error al escribir en el archivo: " + e.getMessage());
         }
     }
 
     /**
-     * Lee una cadena JSON desde el almacenamiento interno.
-     * @return Cadena JSON leída o `null` si ocurre un error.
+     * Abre el archivo para leerlo como flujo, desde los assets o desde el almacenamiento interno.
+     * @return Flujo de lectura; el que llama debe cerrarlo.
+     * @throws FileNotFoundException Si el archivo no existe.
      */
-    private String readJsonFromInternalStorage() {
-        try {
-            FileInputStream fis = context.openFileInput(path);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(fis));
-            StringBuilder sb = new StringBuilder();
-            String line;
-
-            // Lee línea por línea y construye la cadena completa
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
+    @Override
+    public InputStream openInput() throws IOException {
+        return internal ? context.openFileInput(path) : context.getAssets().open(path);
+    }
+
+    /**
+     * Abre el archivo para escribirlo en el almacenamiento interno (los assets son de solo lectura).
+     * Se escribe en un archivo temporal que, al hacer commit(), se sincroniza con el disco y se renombra
+     * sobre el destino, así que si la aplicación muere a mitad queda el contenido anterior entero.
+     * @return Flujo de escritura; sin commit() no se modifica el archivo.
+     */
+    @Override
+    public AtomicOutputStream openOutput() throws IOException {
+        final java.io.File target = new java.io.File(context.getFilesDir(), path);
+        // Nombre único: puede haber dos escrituras del mismo archivo a la vez
+        final java.io.File tmp = java.io.File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        final FileOutputStream fos = new FileOutputStream(tmp);
+        return new AtomicOutputStream(new BufferedOutputStream(fos)) {
+            @Override
+            protected void publish() throws IOException {
+                try {
+                    out.flush();
+                    fos.getFD().sync(); // Que los datos estén en disco antes de renombrar
+                    fos.close();
+                    Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    discard();
+                    throw e;
+                }
             }
 
-            fis.close(); // Cierra el archivo
-            Log.d("JsonRead", "JSON read from internal storage: " + sb.toString());
-            return sb.toString(); // Devuelve la cadena JSON completa
-        } catch (FileNotFoundException e) {
-            Log.d("JsonRead", "JSON file not found. This may be the first run."); // Archivo no encontrado (primera ejecución)
-            return null;
-        } catch (IOException e) {
-            Log.e("JsonRead", "Error reading JSON from internal storage", e); // Error de lectura
-            return null;
+            @Override
+            protected void discard() {
+                try {
+                    fos.close();
+                } catch (IOException ignored) {
+                }
+                tmp.delete();
+            }
+        };
+    }
+
+    /**
+     * Abre el archivo del almacenamiento interno para añadir datos al final.
+     * @return Flujo de escritura; lo escrito llega al archivo al cerrarlo.
+     */
+    @Override
+    public OutputStream openAppend() throws IOException {
+        return new BufferedOutputStream(context.openFileOutput(path, Context.MODE_APPEND));
+    }
+
+    /**
+     * Lee el flujo hasta el final.
+     * @param is Flujo a leer (no se cierra).
+     * @param sizeHint Tamaño esperado para reservar el buffer de una vez, o -1 si no se conoce.
+     * @return Bytes leídos.
+     */
+    private static byte[] readFully(InputStream is, long sizeHint) throws IOException {
+        int initial = (sizeHint > 0 && sizeHint < Integer.MAX_VALUE - 8) ? (int) sizeHint + 1 : 8192;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(initial);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
         }
+        return out.toByteArray();
     }
 }
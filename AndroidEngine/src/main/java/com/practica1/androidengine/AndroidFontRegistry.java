@@ -0,0 +1,66 @@
+package com.practica1.androidengine;
+
+import android.content.res.AssetManager;
+import android.graphics.Typeface;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registro de fuentes de Android.
+ * Cada archivo de fuente se carga de los assets con `Typeface.createFromAsset` una sola vez y sus
+ * variantes de estilo (negrita, cursiva) se crean a partir de esa base y también se guardan.
+ * El tamaño no forma parte del Typeface (se aplica en el Paint), así que todos los tamaños
+ * de una misma fuente y estilo comparten el mismo objeto.
+ */
+class AndroidFontRegistry {
+
+    private final AssetManager assets; // Acceso a los archivos de fuentes
+    private final Map<String, Typeface> typefaces = new HashMap<>(); // "archivo#estilo" -> Typeface
+    private final Map<String, Long> fileSizes = new HashMap<>(); // archivo -> bytes
+
+    /**
+     * @param assets AssetManager utilizado para cargar archivos desde los recursos de la aplicación.
+     */
+    AndroidFontRegistry(AssetManager assets) {
+        this.assets = assets;
+    }
+
+    /**
+     * Devuelve el Typeface de un archivo con el estilo pedido, cargándolo solo la primera vez.
+     * @param file Ruta del archivo de la fuente dentro de los assets.
+     * @param bold `true` si la fuente debe ser negrita.
+     * @param italic `true` si la fuente debe ser cursiva.
+     * @return Typeface compartido.
+     */
+    synchronized Typeface get(String file, boolean bold, boolean italic) {
+        int style = Typeface.NORMAL;
+        if (bold && italic) style = Typeface.BOLD_ITALIC; // Combina negrita y cursiva
+        else if (bold) style = Typeface.BOLD; // Solo negrita
+        else if (italic) style = Typeface.ITALIC; // Solo cursiva
+
+        String key = file + "#" + style;
+        Typeface typeface = typefaces.get(key);
+        if (typeface == null) {
+            Typeface base = typefaces.get(file + "#" + Typeface.NORMAL);
+            if (base == null) {
+                base = Typeface.createFromAsset(assets, file); // Única lectura del archivo
+                typefaces.put(file + "#" + Typeface.NORMAL, base);
+                fileSizes.put(file, Math.max(0, AndroidFile.assetSize(assets, file)));
+            }
+            typeface = (style == Typeface.NORMAL) ? base : Typeface.create(base, style);
+            typefaces.put(key, typeface);
+        }
+        return typeface;
+    }
+
+    /**
+     * Tamaño del archivo de una fuente ya cargada con get().
+     * @param file Ruta del archivo de la fuente dentro de los assets.
+     * @return Tamaño en bytes (0 si no se conoce).
+     */
+    synchronized long getSize(String file) {
+        Long size = fileSizes.get(file);
+        return (size != null) ? size : 0;
+    }
+}
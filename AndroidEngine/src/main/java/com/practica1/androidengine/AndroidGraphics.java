@@ -8,10 +8,14 @@ import android.view.SurfaceView;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import com.practica1.engine.AssetManifest;
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Graphics;
 import com.practica1.engine.Image;
+import com.practica1.engine.ImageHandle;
 import com.practica1.engine.Color;
 import com.practica1.engine.Font;
+import com.practica1.engine.ResourceManager;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,27 +31,144 @@ public class AndroidGraphics implements Graphics {
     private SurfaceHolder holder;
     private float scale;
     private float offsetX, offsetY;
+    private volatile float renderScale = 0; // Escala lógica -> píxeles del último frame (0 si aún no hay frames)
+    private Paint imagePaint; // Filtrado bilineal para las imágenes escaladas
+    private ResourceManager resources; // Caché compartida de imágenes y fuentes
+    private AndroidFontRegistry fonts; // Cada archivo de fuente se carga una sola vez
+    private AssetManifest manifest; // Tamaño original de los sprites reducidos al compilar
+    private AsyncLoader loader; // Cargas en segundo plano
+    private Paint placeholderPaint; // Marcador de las imágenes que aún se están cargando
 
+    // Tamaño y liberación de las imágenes en la caché
+    private static final ResourceManager.Sizer<AndroidImage> IMAGE_SIZE = AndroidImage::getByteSize;
+    private static final ResourceManager.Disposer<AndroidImage> IMAGE_DISPOSER = image -> image.getBitmap().recycle();
 
-    public AndroidGraphics(SurfaceView myView, Context context) {
+
+    public AndroidGraphics(SurfaceView myView, Context context, ResourceManager resources, AsyncLoader loader) {
         this.myView = myView;
         this.context = context;  // Inicializar el contexto aquí
+        this.resources = resources;
+        this.loader = loader;
+        this.fonts = new AndroidFontRegistry(context.getAssets());
+        this.manifest = readManifest(context.getAssets());
         this.holder = this.myView.getHolder();
         this.paint = new Paint();
         this.paint.setColor(0xFF000000);
         this.paint.setAntiAlias(true);
+        this.imagePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        this.placeholderPaint = new Paint();
+        this.placeholderPaint.setColor(0x40808080);
 
     }
 
 
 
-    // Método para cargar una imagen desde los assets
+    // Método para obtener una imagen de los assets (se decodifica una sola vez y se comparte)
     @Override
     public Image newImage(String assetName) {
+        return resources.acquire("image:" + assetName, () -> loadImage(assetName, 0, 0, 0, 0), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Imagen decodificada al tamaño lógico con el que se va a dibujar
+    @Override
+    public Image newImage(String assetName, int targetWidth, int targetHeight) {
+        float s = renderScale;
+        if (s <= 0) return newImage(assetName); // Sin escala conocida se decodifica entera
+        String key = "image:" + assetName + "@" + targetWidth + "x" + targetHeight + "/" + Math.round(s * 100);
+        return resources.acquire(key, () -> loadImage(assetName, 0, targetWidth, targetHeight, s), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Imagen decodificada para dibujarse con una escala fija sobre su tamaño original
+    @Override
+    public Image newImage(String assetName, float drawScale) {
+        float s = renderScale;
+        if (s <= 0 || drawScale <= 0) return newImage(assetName);
+        String key = "image:" + assetName + "@" + drawScale + "/" + Math.round(s * 100);
+        return resources.acquire(key, () -> loadImage(assetName, drawScale, 0, 0, s), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Versiones en segundo plano: el handle se dibuja como un marcador hasta que la imagen está lista
+    @Override
+    public ImageHandle loadImageAsync(String assetName) {
+        return loader.load(newHandle(assetName), () -> newImage(assetName));
+    }
+
+    @Override
+    public ImageHandle loadImageAsync(String assetName, int targetWidth, int targetHeight) {
+        return loader.load(newHandle(assetName), () -> newImage(assetName, targetWidth, targetHeight));
+    }
+
+    @Override
+    public ImageHandle loadImageAsync(String assetName, float drawScale) {
+        return loader.load(newHandle(assetName), () -> newImage(assetName, drawScale));
+    }
+
+    // El tamaño del marcador sale del manifiesto; sin él no se conoce hasta decodificar y no se dibuja
+    private ImageHandle newHandle(String assetName) {
+        AssetManifest.Entry entry = manifest.get("sprites/" + assetName);
+        return (entry != null) ? new ImageHandle(entry.getWidth(), entry.getHeight()) : new ImageHandle(0, 0);
+    }
+
+    /**
+     * Lee el manifiesto de los assets procesados. Sin él (assets sin procesar) se usan los tamaños
+     * reales de los archivos.
+     */
+    private static AssetManifest readManifest(AssetManager assetManager) {
+        try (InputStream inputStream = assetManager.open(AssetManifest.FILE)) {
+            return AssetManifest.read(inputStream);
+        } catch (IOException e) {
+            return AssetManifest.empty();
+        }
+    }
+
+    /**
+     * Método para cargar una imagen desde los assets. Primero se leen solo las dimensiones y se
+     * calcula el inSampleSize más grande que no deja la imagen por debajo del tamaño en píxeles
+     * con el que se va a dibujar; así el bitmap residente no es mayor de lo que se ve.
+     * Si el sprite se redujo al compilar, la imagen conserva el tamaño del original (del manifiesto)
+     * para que las escalas de dibujado del juego no cambien.
+     * @param drawScale Escala de dibujado sobre el tamaño original (0 si se usa tamaño objetivo).
+     * @param targetWidth Ancho lógico objetivo (0 = sin restricción).
+     * @param targetHeight Alto lógico objetivo (0 = sin restricción).
+     * @param scale Escala lógica -> píxeles (0 = resolución completa).
+     */
+    private AndroidImage loadImage(String assetName, float drawScale, int targetWidth, int targetHeight, float scale) {
         AssetManager assetManager = context.getAssets();
-        try (InputStream inputStream = assetManager.open("sprites/" + assetName)) {
-            Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-            return new AndroidImage(bitmap);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        AssetManifest.Entry entry = manifest.get("sprites/" + assetName);
+        boolean resized = entry != null && entry.getWidth() > 0; // Tamaño original conocido
+        try {
+            int sampleSize = 1;
+            int width = 0, height = 0;
+            if (scale > 0) {
+                // Primera pasada: solo dimensiones, sin decodificar píxeles
+                options.inJustDecodeBounds = true;
+                try (InputStream inputStream = assetManager.open("sprites/" + assetName)) {
+                    BitmapFactory.decodeStream(inputStream, null, options);
+                }
+                width = options.outWidth;
+                height = options.outHeight;
+                int originalWidth = resized ? entry.getWidth() : width;
+                int originalHeight = resized ? entry.getHeight() : height;
+                int reqWidth = (int) Math.ceil((drawScale > 0 ? originalWidth * drawScale : targetWidth) * scale);
+                int reqHeight = (int) Math.ceil((drawScale > 0 ? originalHeight * drawScale : targetHeight) * scale);
+                if (width > 0 && height > 0 && (reqWidth > 0 || reqHeight > 0)) {
+                    while ((reqWidth == 0 || width / (sampleSize * 2) >= reqWidth)
+                            && (reqHeight == 0 || height / (sampleSize * 2) >= reqHeight)) {
+                        sampleSize *= 2;
+                    }
+                }
+                options.inJustDecodeBounds = false;
+            }
+            options.inSampleSize = sampleSize;
+
+            try (InputStream inputStream = assetManager.open("sprites/" + assetName)) {
+                Bitmap bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+                if (bitmap == null) return null; // Formato no soportado
+                if (resized) return new AndroidImage(bitmap, entry.getWidth(), entry.getHeight());
+                if (sampleSize == 1) return new AndroidImage(bitmap);
+                return new AndroidImage(bitmap, width, height);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return null;
@@ -72,6 +193,7 @@ public class AndroidGraphics implements Graphics {
 
         // Calcula la escala adecuada y los offsets para centrar la imagen
         scale = Math.min(wProportion, hProportion);
+        renderScale = scale;
         offsetX = (w - (logicW * scale)) / 2;
         offsetY = (h - (logicH * scale)) / 2;
 
@@ -107,7 +229,10 @@ public class AndroidGraphics implements Graphics {
 
     @Override
     public Font newFont(String filename, int size, boolean isBold, boolean isItalic) {
-        return new AndroidFont(context.getAssets(), "fonts/" + filename, size, isBold, isItalic);
+        String key = "font:" + filename + ":" + size + ":" + isBold + ":" + isItalic;
+        return resources.acquire(key,
+                () -> new AndroidFont(fonts.get("fonts/" + filename, isBold, isItalic), size, fonts.getSize("fonts/" + filename)),
+                AndroidFont::getByteSize, null); // El Typeface lo guarda AndroidFontRegistry
     }
 
     @Override
@@ -117,6 +242,15 @@ public class AndroidGraphics implements Graphics {
 
     @Override
     public void drawImageWithScale(Image image, int x, int y, float scaleX, float scaleY) {
+        if (image instanceof ImageHandle) {
+            ImageHandle handle = (ImageHandle) image;
+            if (!handle.isReady()) {
+                // Aún cargándose: marcador del tamaño que tendrá la imagen
+                canvas.drawRect(x, y, x + handle.getWidth() * scaleX, y + handle.getHeight() * scaleY, placeholderPaint);
+                return;
+            }
+            image = handle.get();
+        }
         if (image instanceof AndroidImage) {
             AndroidImage androidImage = (AndroidImage) image;
             Bitmap bitmap = androidImage.getBitmap();
@@ -125,11 +259,12 @@ public class AndroidGraphics implements Graphics {
             canvas.save();
 
             // Trasladar y escalar el Canvas para dibujar la imagen escalada
+            // (compensando si el bitmap se decodificó más pequeño que la imagen original)
             canvas.translate(x, y);
-            canvas.scale(scaleX, scaleY);
+            canvas.scale(scaleX / androidImage.getDecodeScaleX(), scaleY / androidImage.getDecodeScaleY());
 
             // Dibujar la imagen escalada en las coordenadas ajustadas
-            canvas.drawBitmap(bitmap, 0, 0, null);
+            canvas.drawBitmap(bitmap, 0, 0, imagePaint);
 
             // Restaurar el estado del Canvas
             canvas.restore();
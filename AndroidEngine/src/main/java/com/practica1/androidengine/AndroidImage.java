@@ -5,10 +5,18 @@ import com.practica1.engine.Image;
 
 public class AndroidImage implements Image {
     private Bitmap bitmap;
+    private int width, height; // Tamaño del archivo original (el bitmap puede estar reducido)
 
     // Constructor que recibe el Bitmap cargado
     public AndroidImage(Bitmap bitmap) {
+        this(bitmap, bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    // Constructor para un Bitmap decodificado a menor tamaño que el archivo original
+    public AndroidImage(Bitmap bitmap, int originalWidth, int originalHeight) {
         this.bitmap = bitmap;
+        this.width = originalWidth;
+        this.height = originalHeight;
     }
 
     // Método para obtener el Bitmap
@@ -16,15 +24,29 @@ public class AndroidImage implements Image {
         return bitmap;
     }
 
+    // Relación entre el tamaño del bitmap y el original, para compensarla al dibujar
+    public float getDecodeScaleX() {
+        return (float) bitmap.getWidth() / width;
+    }
 
+    public float getDecodeScaleY() {
+        return (float) bitmap.getHeight() / height;
+    }
+
+    // Bytes reales del bitmap (del tamaño decodificado, no del original)
+    @Override
+    public long getByteSize() {
+        return bitmap.getAllocationByteCount();
+    }
 
+    // El juego siempre trabaja con el tamaño original, aunque el bitmap esté reducido
     @Override
     public int getWidth() {
-        return bitmap.getWidth();
+        return width;
     }
 
     @Override
     public int getHeight() {
-        return bitmap.getHeight();
+        return height;
     }
 }
@@ -10,14 +10,21 @@ import com.practica1.engine.Sound; // Importa la interfaz Sound, que este clase
 public class AndroidSound implements Sound {
     private int id; // Identificador único del sonido
     private boolean loaded; // Indica si el sonido está cargado y listo para usarse
+    private long bytes; // Tamaño aproximado del sonido (tamaño del archivo)
+    private long durationNanos; // Duración estimada (0 si no se conoce)
+    private volatile long playingUntil = 0; // System.nanoTime() en que acaba de sonar (MAX_VALUE en bucle)
 
     /**
      * Constructor protegido de la clase `AndroidSound`.
      * Se utiliza para inicializar el sonido con un identificador específico.
      * @param soundId El identificador único del sonido.
+     * @param bytes Tamaño aproximado del sonido en bytes.
+     * @param durationNanos Duración estimada del sonido (0 si no se conoce).
      */
-    protected AndroidSound(int soundId) {
+    protected AndroidSound(int soundId, long bytes, long durationNanos) {
         this.id = soundId; // Asigna el identificador al sonido
+        this.bytes = bytes;
+        this.durationNanos = durationNanos;
         this.loaded = false; // Inicialmente, el sonido no está cargado
     }
 
@@ -29,6 +36,39 @@ public class AndroidSound implements Sound {
         return this.id;
     }
 
+    /**
+     * Devuelve el tamaño aproximado del sonido, usado por la caché de recursos.
+     * @return Tamaño en bytes.
+     */
+    @Override
+    public long getByteSize() {
+        return this.bytes;
+    }
+
+    /**
+     * Apunta que el sonido ha empezado a sonar. SoundPool no dice si un sonido sigue sonando,
+     * así que se estima con su duración.
+     * @param loop `true` si suena en bucle (hasta que se pare).
+     */
+    protected void played(boolean loop) {
+        playingUntil = loop ? Long.MAX_VALUE : System.nanoTime() + durationNanos;
+    }
+
+    /**
+     * Apunta que el sonido se ha parado.
+     */
+    protected void stopped() {
+        playingUntil = 0;
+    }
+
+    /**
+     * Indica si el sonido sigue sonando; la caché de recursos no lo descarga mientras tanto.
+     * @return `true` si todavía suena.
+     */
+    protected boolean isPlaying() {
+        return System.nanoTime() < playingUntil;
+    }
+
     /**
      * Establece el estado de carga del sonido.
      * @param loaded `true` si el sonido está cargado, `false` en caso contrario.
@@ -1,10 +1,12 @@
 package com.practica1.desktopgame;
 
+import com.practica1.desktopengine.DesktopAssets;
 import com.practica1.desktopengine.DesktopEngine;
-import com.practica1.engine.State;
-import com.practica1.gamelogic.IntroScene;
-import com.practica1.gamelogic.Scene;
+import com.practica1.desktopengine.DesktopMobile;
+import com.practica1.gamelogic.SceneManager;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.JFrame;
 
 public class MainActivity {
@@ -34,8 +36,28 @@ public class MainActivity {
         }
 
         DesktopEngine engine = new DesktopEngine(renderView);
-        State scene = new Scene(engine); // Pasar el DesktopEngine a la escena
-        engine.setState(scene);
+        SceneManager sceneManager = SceneManager.getInstance();
+        sceneManager.Init(engine, new DesktopMobile(), 500, 1000, "data.json"); // Misma resolución lógica que en Android
+
+        // Recarga en caliente de niveles y estilos al editarlos (solo con los assets sueltos, sin data/assets.pack)
+        if (engine.watchAssets("levels", paths -> {
+            System.out.println("Niveles modificados: " + paths);
+            sceneManager.reloadLevels();
+        })) {
+            System.out.println("Vigilando " + DesktopAssets.ASSETS_DIR + "/levels");
+        }
+
+        // Al cerrar la ventana se guarda el progreso antes de que termine la aplicación
+        renderView.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                engine.pause();
+                sceneManager.onPause(); // El bucle ya está parado
+                sceneManager.requestSave();
+                sceneManager.flushSave(500);
+                engine.stop();
+            }
+        });
         engine.resume();
     }
 }
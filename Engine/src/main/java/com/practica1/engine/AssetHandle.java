@@ -0,0 +1,39 @@
+package com.practica1.engine;
+
+/**
+ * Recurso que se está cargando en segundo plano (ver AsyncLoader). Empieza pendiente y pasa a
+ * listo o a fallido en el hilo del juego, al principio de un frame, así que una escena nunca ve
+ * el cambio a mitad de un update o un render.
+ */
+public class AssetHandle<T> {
+
+    private volatile T value; // null mientras no esté listo
+    private volatile boolean failed = false;
+
+    public boolean isReady() {
+        return value != null;
+    }
+
+    // La carga ha terminado con error; el recurso no va a estar nunca listo
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return value != null || failed;
+    }
+
+    // El recurso cargado, o null si aún no está listo
+    public T get() {
+        return value;
+    }
+
+    // Lo llama el AsyncLoader al terminar la carga
+    void complete(T value) {
+        this.value = value;
+    }
+
+    void fail() {
+        this.failed = true;
+    }
+}
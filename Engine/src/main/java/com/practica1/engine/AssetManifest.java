@@ -0,0 +1,104 @@
+package com.practica1.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Manifiesto de los assets procesados (assets.manifest en la raíz de los assets). Lo genera la
+ * tarea processGameAssets de Gradle: una línea por archivo con su tamaño, su hash SHA-256 y, en
+ * los sprites, el tamaño del archivo original antes de reescalarlo.
+ *
+ * Formato (texto UTF-8, separado por tabuladores; las líneas con '#' son comentarios):
+ *   ruta | bytes | sha256 | ancho original | alto original
+ *
+ * Los motores usan el tamaño original para que Image.getWidth()/getHeight() y las escalas de
+ * dibujado del juego sigan refiriéndose al archivo de autor aunque el sprite empaquetado sea menor.
+ */
+public class AssetManifest {
+
+    public static final String FILE = "assets.manifest";
+
+    public static final class Entry {
+        private final long size;
+        private final String hash;
+        private final int width, height;
+
+        Entry(long size, String hash, int width, int height) {
+            this.size = size;
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        // Tamaño del sprite original (0 si no es una imagen)
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private static final AssetManifest EMPTY = new AssetManifest(Collections.<String, Entry>emptyMap());
+
+    private final Map<String, Entry> entries;
+
+    private AssetManifest(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    // Manifiesto vacío: assets sin procesar, se usan los tamaños reales de los archivos
+    public static AssetManifest empty() {
+        return EMPTY;
+    }
+
+    public static AssetManifest read(InputStream is) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split("\t");
+            if (fields.length != 5) {
+                throw new IOException("Línea " + number + " del manifiesto mal formada: " + line);
+            }
+            try {
+                entries.put(fields[0], new Entry(Long.parseLong(fields[1]), fields[2],
+                        Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+            } catch (NumberFormatException e) {
+                throw new IOException("Línea " + number + " del manifiesto mal formada: " + line, e);
+            }
+        }
+        return new AssetManifest(entries);
+    }
+
+    // Entrada de un asset por su ruta relativa ("sprites/apple.png"), o null si no está
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public boolean contains(String path) {
+        return entries.containsKey(path);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
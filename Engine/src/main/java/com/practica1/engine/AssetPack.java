@@ -0,0 +1,244 @@
+package com.practica1.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Paquete de assets: un único archivo con un índice (ruta -> posición/longitud) al principio y
+ * los contenidos detrás, cada uno alineado a ALIGNMENT bytes.
+ *
+ * Formato (big-endian):
+ *   "PBAP" | versión (int) | nº de entradas (int)
+ *   por entrada: longitud de la ruta (short) | ruta UTF-8 | posición (long) | longitud (long)
+ *   contenidos alineados
+ *
+ * Se lee con un único MappedByteBuffer; cada asset es una vista (slice) sobre él, sin copias.
+ * El main() lo genera a partir de una carpeta (lo usa la tarea packAssets de Gradle).
+ */
+public class AssetPack {
+
+    public static final int MAGIC = 0x50424150; // "PBAP"
+    public static final int VERSION = 1;
+    public static final int ALIGNMENT = 16;
+    private static final int ENTRY_SIZE = 2 + 8 + 8; // Entrada del índice con la ruta vacía
+
+    private final MappedByteBuffer data;
+    private final Map<String, long[]> index; // ruta -> {posición, longitud}
+
+    private AssetPack(MappedByteBuffer data, Map<String, long[]> index) {
+        this.data = data;
+        this.index = index;
+    }
+
+    // -- LECTURA --
+
+    public static AssetPack open(Path file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // el mapeo sigue vivo al cerrar el canal
+        }
+        if (data.remaining() < 12 || data.getInt() != MAGIC) {
+            throw new IOException("No es un paquete de assets: " + file);
+        }
+        int version = data.getInt();
+        if (version != VERSION) {
+            throw new IOException("Version de paquete no soportada: " + version);
+        }
+        int count = data.getInt();
+        // Cada entrada ocupa al menos ENTRY_SIZE bytes: un número mayor es un paquete truncado o dañado
+        if (count < 0 || count > data.remaining() / ENTRY_SIZE) {
+            throw new IOException("Indice corrupto en el paquete: " + count + " entradas");
+        }
+        Map<String, long[]> index = new LinkedHashMap<>(count * 2);
+        byte[] name = new byte[256];
+        for (int i = 0; i < count; i++) {
+            if (data.remaining() < ENTRY_SIZE) throw new IOException("Paquete truncado: " + file);
+            int length = data.getShort() & 0xFFFF;
+            if (data.remaining() < length + 16) throw new IOException("Paquete truncado: " + file);
+            if (name.length < length) name = new byte[length];
+            data.get(name, 0, length);
+            long offset = data.getLong();
+            long size = data.getLong();
+            if (offset < 0 || size < 0 || offset > data.capacity() || size > data.capacity() - offset) {
+                throw new IOException("Entrada corrupta en el paquete: " + new String(name, 0, length, StandardCharsets.UTF_8));
+            }
+            index.put(new String(name, 0, length, StandardCharsets.UTF_8), new long[]{offset, size});
+        }
+        return new AssetPack(data, index);
+    }
+
+    public boolean contains(String path) {
+        return index.containsKey(path);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Vista de solo lectura sobre el contenido de un asset (null si no existe)
+    public ByteBuffer slice(String path) {
+        long[] entry = index.get(path);
+        if (entry == null) return null;
+        ByteBuffer view = data.duplicate();
+        view.position((int) entry[0]);
+        view.limit((int) (entry[0] + entry[1]));
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    // Flujo sobre el asset, leyendo directamente del mapeo (null si no existe)
+    public InputStream open(String path) {
+        ByteBuffer buffer = slice(path);
+        return (buffer == null) ? null : new ByteBufferInputStream(buffer);
+    }
+
+    // Nombres de las entradas directas de una carpeta, como File.list()
+    public String[] list(String dir) {
+        String prefix = dir.isEmpty() || dir.endsWith("/") ? dir : dir + "/";
+        TreeSet<String> names = new TreeSet<>();
+        for (String path : index.keySet()) {
+            if (!path.startsWith(prefix)) continue;
+            String rest = path.substring(prefix.length());
+            int slash = rest.indexOf('/');
+            names.add(slash < 0 ? rest : rest.substring(0, slash));
+        }
+        return names.toArray(new String[0]);
+    }
+
+    // InputStream sobre un ByteBuffer; admite mark/reset (AudioSystem lo necesita)
+    public static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        public ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+        }
+    }
+
+    // -- ESCRITURA --
+
+    // Empaqueta todos los archivos de `root` (rutas relativas con '/') en `out`
+    public static void write(Path root, Path out) throws IOException {
+        List<String> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .forEach(p -> paths.add(root.relativize(p).toString().replace('\\', '/')));
+        }
+        Collections.sort(paths); // orden estable: el mismo contenido da el mismo paquete
+
+        // Tamaño del índice para saber dónde empieza el primer contenido
+        long headerSize = 12;
+        for (String path : paths) {
+            headerSize += 2 + path.getBytes(StandardCharsets.UTF_8).length + 16;
+        }
+        long[] offsets = new long[paths.size()];
+        long[] sizes = new long[paths.size()];
+        long position = align(headerSize);
+        for (int i = 0; i < paths.size(); i++) {
+            sizes[i] = Files.size(root.resolve(paths.get(i)));
+            offsets[i] = position;
+            position = align(position + sizes[i]);
+        }
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("El paquete no cabe en un solo mapeo (" + position + " bytes)");
+        }
+
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeInt(paths.size());
+            for (int i = 0; i < paths.size(); i++) {
+                byte[] name = paths.get(i).getBytes(StandardCharsets.UTF_8);
+                os.writeShort(name.length);
+                os.write(name);
+                os.writeLong(offsets[i]);
+                os.writeLong(sizes[i]);
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                pad(os, offsets[i] - os.size());
+                Files.copy(root.resolve(paths.get(i)), os);
+            }
+            pad(os, position - os.size());
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void pad(OutputStream os, long count) throws IOException {
+        for (long i = 0; i < count; i++) os.write(0);
+    }
+
+    // Uso: AssetPack <carpeta de assets> <archivo de salida>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: AssetPack <carpeta de assets> <archivo de salida>");
+            System.exit(1);
+        }
+        Path root = Paths.get(args[0]);
+        Path out = Paths.get(args[1]);
+        write(root, out);
+        System.out.println("Paquete de assets generado: " + out + " (" + Files.size(out) + " bytes)");
+    }
+}
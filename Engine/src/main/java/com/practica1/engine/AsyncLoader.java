@@ -0,0 +1,92 @@
+package com.practica1.engine;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Carga de recursos en segundo plano para Graphics.loadImageAsync y Audio.loadSoundAsync.
+ * La decodificación se hace en el pool de cálculo del JobSystem y el handle se marca como listo en
+ * el hilo del juego, así que el primer frame de una escena nunca espera a que se decodifique nada.
+ *
+ * También lleva la cuenta de las cargas en curso para que una escena de carga pueda mostrar el
+ * progreso: cuenta desde que se pide la primera carga de una tanda hasta que no queda ninguna
+ * pendiente; la siguiente petición empieza una tanda nueva.
+ */
+public class AsyncLoader {
+
+    private final JobSystem jobs;
+    private final ResourceManager resources;
+
+    // Tanda actual (solo se tocan en el hilo del juego o bajo el lock)
+    private int requested = 0;
+    private int finished = 0;
+    private int failed = 0;
+
+    public AsyncLoader(JobSystem jobs, ResourceManager resources) {
+        this.jobs = jobs;
+        this.resources = resources;
+    }
+
+    /**
+     * Ejecuta `loader` en segundo plano y completa `handle` con su resultado. El recurso queda a
+     * nombre del dueño (escena) que lo pide, igual que si se hubiera cargado de forma síncrona.
+     * Un loader que devuelve null cuenta como fallo. Si el dueño se suelta antes de que termine,
+     * el recurso no se le apunta (ResourceManager.acquire) y el handle se marca como fallido.
+     */
+    public <T, H extends AssetHandle<T>> H load(H handle, Callable<T> loader) {
+        Object owner = resources.getCurrentOwner();
+        synchronized (this) {
+            if (requested == finished) {
+                // No quedaba nada pendiente: empieza una tanda nueva
+                requested = finished = failed = 0;
+            }
+            requested++;
+        }
+        jobs.cpu(() -> {
+            Object previous = resources.setThreadOwner(owner);
+            try {
+                T value = loader.call();
+                if (value == null) throw new IOException("No se pudo cargar el recurso");
+                return value;
+            } finally {
+                resources.setThreadOwner(previous);
+            }
+        }, (value, error) -> {
+            boolean ok = false;
+            if (error != null) {
+                error.printStackTrace();
+                handle.fail();
+            } else if (resources.isReleased(owner)) {
+                handle.fail(); // la escena ya no existe; el recurso queda en caché sin dueño y se puede expulsar
+            } else {
+                handle.complete(value);
+                ok = true;
+            }
+            synchronized (this) {
+                finished++;
+                if (!ok) failed++;
+            }
+        });
+        return handle;
+    }
+
+    // -- PROGRESO --
+
+    // Fracción de la tanda actual ya terminada (1 si no hay nada cargándose)
+    public synchronized float getProgress() {
+        return (requested == 0) ? 1f : (float) finished / requested;
+    }
+
+    public synchronized int getPending() {
+        return requested - finished;
+    }
+
+    public synchronized boolean isIdle() {
+        return requested == finished;
+    }
+
+    // Cargas de la tanda actual que han fallado
+    public synchronized int getFailed() {
+        return failed;
+    }
+}
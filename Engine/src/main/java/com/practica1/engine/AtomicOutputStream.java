@@ -0,0 +1,52 @@
+package com.practica1.engine;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Flujo de escritura de un File que no toca el archivo hasta que se llama a commit(): entonces lo
+ * escrito sustituye al contenido anterior de golpe. Si se cierra sin commit() (por ejemplo, porque
+ * ha fallado la codificación a mitad) se descarta y el archivo se queda como estaba.
+ *
+ *   try (AtomicOutputStream out = file.openOutput()) {
+ *       ...escribir...
+ *       out.commit();
+ *   }
+ */
+public abstract class AtomicOutputStream extends FilterOutputStream {
+
+    private boolean done = false;
+
+    protected AtomicOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    // Publica lo escrito como nuevo contenido del archivo y cierra el flujo
+    public final void commit() throws IOException {
+        if (done) throw new IOException("El flujo ya está cerrado");
+        done = true;
+        flush();
+        publish();
+    }
+
+    // Sin commit() previo descarta lo escrito
+    @Override
+    public final void close() {
+        if (done) return;
+        done = true;
+        discard();
+    }
+
+    // FilterOutputStream escribe los arrays byte a byte
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    // Lleva al disco, cierra y coloca el contenido nuevo en su sitio
+    protected abstract void publish() throws IOException;
+
+    // Cierra y borra lo escrito
+    protected abstract void discard();
+}
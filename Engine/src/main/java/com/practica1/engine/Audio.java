@@ -4,6 +4,9 @@ public interface Audio {
 
     public Sound newSound(String file);
 
+    // Carga en segundo plano; el handle no suena hasta que está listo
+    public SoundHandle loadSoundAsync(String file);
+
     public void playSound(Sound s, boolean loop);
 
     public void mute();
@@ -1,5 +1,6 @@
 package com.practica1.engine;
 
+import javax.crypto.SecretKey;
 
 public interface Engine {
 
@@ -16,4 +17,22 @@ public interface Engine {
     String[] getAssetsList(String path);
 
     void changeScene(State scene);
+
+    // Perfilador de tiempos por fase del bucle de juego
+    FrameProfiler getProfiler();
+
+    // Trabajo diferido que se ejecuta en el tiempo libre de cada frame, en el hilo del juego
+    TaskScheduler getScheduler();
+
+    // Trabajo en paralelo en hilos de fondo; los callbacks vuelven al hilo del juego
+    JobSystem getJobs();
+
+    // Caché compartida de imágenes, fuentes y sonidos
+    ResourceManager getResources();
+
+    // Cargas en segundo plano (loadImageAsync/loadSoundAsync) y su progreso
+    AsyncLoader getLoader();
+
+    // Clave (HMAC-SHA256) de la etiqueta de integridad de los guardados; no se guarda junto a ellos
+    SecretKey getSaveKey();
 }
@@ -1,5 +1,10 @@
 package com.practica1.engine;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 public interface File {
 
     // Obtener el contenido de un archivo
@@ -8,4 +13,27 @@ public interface File {
     // Escribir data en el archivo
     void setContent(String data);
 
+    // Obtener el contenido completo en bytes (para formatos binarios), o null si no existe
+    byte[] readBytes();
+
+    // Tamaño del archivo en bytes, o -1 si no existe
+    long size();
+
+    // Contenido de solo lectura sin copiarlo, mapeado en memoria cuando se puede (archivos grandes o
+    // formatos binarios que se leen por partes). FileNotFoundException si no existe
+    ByteBuffer map() throws IOException;
+
+    // Escribir data en el archivo tal cual, sin pasar por String. Sustituye el archivo de forma
+    // atómica: si se interrumpe, queda el contenido anterior entero
+    void writeBytes(byte[] data);
+
+    // Flujo de lectura del archivo (FileNotFoundException si no existe)
+    InputStream openInput() throws IOException;
+
+    // Flujo de escritura que sustituye el archivo de forma atómica al llamar a commit()
+    AtomicOutputStream openOutput() throws IOException;
+
+    // Flujo que escribe al final del archivo (lo crea si no existe); no es atómico
+    OutputStream openAppend() throws IOException;
+
 }
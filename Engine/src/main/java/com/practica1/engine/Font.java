@@ -2,4 +2,7 @@ package com.practica1.engine;
 
 public interface Font {
     int getSize();
+
+    // Bytes de los datos de la fuente (el archivo parseado, compartido por sus tamaños y estilos)
+    long getByteSize();
 }
@@ -0,0 +1,165 @@
+package com.practica1.engine;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Perfilador de fases del frame.
+ * El hilo de renderizado es el único que escribe: al principio de cada frame llama a beginFrame(),
+ * después de cada fase llama a mark(fase) y al terminar llama a endFrame().
+ * Los tiempos se guardan en un buffer circular sin locks; cualquier otro hilo puede pedir
+ * percentiles (p50/p95/p99) y máximos sobre una ventana de los últimos N frames.
+ */
+public class FrameProfiler {
+
+    // Fases del bucle de juego que se miden
+    public enum Phase {
+        JOBS,         // Callbacks de trabajos terminados (JobSystem) en el hilo del juego
+        INPUT,        // Vaciado de la cola de eventos y conversión a coordenadas lógicas
+        HANDLE_INPUT, // State.handleInput
+        UPDATE,       // State.update
+        RENDER,       // State.render
+        PRESENT,      // Presentación del frame (endFrame / unlockCanvasAndPost)
+        TASKS,        // Tareas diferidas del TaskScheduler en el tiempo sobrante
+        FRAME         // Tiempo total del frame
+    }
+
+    // Estadísticas de una fase sobre una ventana de frames (en nanosegundos)
+    public static class Stats {
+        public final Phase phase;
+        public final int frames;
+        public final long p50, p95, p99, max;
+
+        Stats(Phase phase, int frames, long p50, long p95, long p99, long max) {
+            this.phase = phase;
+            this.frames = frames;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024; // Frames que se guardan (~17s a 60fps)
+    private static final int PHASES = Phase.values().length;
+
+    private final int capacity; // Numero de frames del buffer circular
+    private final long[] samples; // capacity * PHASES muestras, un bloque por frame
+    private volatile long frameCount = 0; // Frames completados; publica las muestras a los lectores
+    private volatile int fps = 0; // Ultimo valor de fps calculado por el motor
+
+    private final long[] current = new long[PHASES]; // Frame en curso (solo lo toca el escritor)
+    private long frameStart, lastMark;
+    private boolean enabled = true;
+
+    public FrameProfiler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FrameProfiler(int capacity) {
+        this.capacity = capacity;
+        this.samples = new long[capacity * PHASES];
+    }
+
+    // Activa o desactiva la medición (desactivado cuesta una comprobación por llamada)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // -- ESCRITOR (hilo de renderizado) --
+
+    public void beginFrame() {
+        if (!enabled) return;
+        Arrays.fill(current, 0);
+        frameStart = System.nanoTime();
+        lastMark = frameStart;
+    }
+
+    // Acumula el tiempo transcurrido desde la marca anterior en la fase indicada
+    public void mark(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    // Cierra el frame y lo publica en el buffer circular
+    public void endFrame() {
+        if (!enabled) return;
+        current[Phase.FRAME.ordinal()] = System.nanoTime() - frameStart;
+        long frame = frameCount;
+        int base = (int) (frame % capacity) * PHASES;
+        System.arraycopy(current, 0, samples, base, PHASES);
+        frameCount = frame + 1; // escritura volatile: publica las muestras anteriores
+    }
+
+    public void setFps(int fps) {
+        this.fps = fps;
+    }
+
+    // -- LECTORES (cualquier hilo) --
+
+    public int getFps() {
+        return fps;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Estadísticas de una fase sobre los últimos `window` frames
+    public Stats getStats(Phase phase, int window) {
+        long end = frameCount;
+        int n = (int) Math.min(Math.min(window, capacity), end);
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            int base = (int) ((end - n + i) % capacity) * PHASES;
+            values[i] = samples[base + phase.ordinal()];
+        }
+        // Si el escritor ha dado la vuelta mientras copiábamos, algunas muestras serán de frames
+        // más nuevos; para estadísticas de una ventana deslizante es aceptable.
+        Arrays.sort(values);
+        return new Stats(phase, n, percentile(values, 50), percentile(values, 95),
+                percentile(values, 99), n == 0 ? 0 : values[n - 1]);
+    }
+
+    public Stats[] getAllStats(int window) {
+        Stats[] stats = new Stats[PHASES];
+        for (Phase phase : Phase.values()) {
+            stats[phase.ordinal()] = getStats(phase, window);
+        }
+        return stats;
+    }
+
+    // Informe legible de todas las fases (tiempos en milisegundos)
+    public String report(int window) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "frames=%d window=%d fps=%d%n", frameCount, Math.min(window, capacity), fps));
+        sb.append(String.format(Locale.ROOT, "%-13s %9s %9s %9s %9s%n", "phase", "p50", "p95", "p99", "max"));
+        for (Stats s : getAllStats(window)) {
+            sb.append(String.format(Locale.ROOT, "%-13s %9.3f %9.3f %9.3f %9.3f%n", s.phase.name(),
+                    s.p50 / 1.0E6, s.p95 / 1.0E6, s.p99 / 1.0E6, s.max / 1.0E6));
+        }
+        return sb.toString();
+    }
+
+    // Vuelca el informe en un archivo (por ejemplo engine.getInternalFile("profile.txt"))
+    public void dump(File file, int window) {
+        file.setContent(report(window));
+    }
+
+    // Percentil por el método nearest-rank sobre un array ordenado
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -5,8 +5,25 @@ public interface Graphics {
 
     Color newColor(int a, int r, int g, int b);
 
+    // Imagen a resolución completa
     Image newImage(String name);
 
+    /* Imagen decodificada solo a la resolución necesaria para dibujarla con un tamaño lógico de
+    al menos targetWidth x targetHeight (0 = sin restricción en ese eje). La imagen sigue
+    devolviendo su tamaño original en getWidth/getHeight y se dibuja igual con drawImageWithScale. */
+    Image newImage(String name, int targetWidth, int targetHeight);
+
+    // Igual, para una imagen que se dibuja con una escala fija sobre su tamaño original
+    Image newImage(String name, float drawScale);
+
+    /* Versiones en segundo plano de newImage: vuelven enseguida con un handle que se puede dibujar
+    desde el primer frame (con un marcador mientras no esté listo). El progreso está en Engine.getLoader(). */
+    ImageHandle loadImageAsync(String name);
+
+    ImageHandle loadImageAsync(String name, int targetWidth, int targetHeight);
+
+    ImageHandle loadImageAsync(String name, float drawScale);
+
     Font newFont(String filename, int size, boolean isBold, boolean isItalic);
 
     void clear(int color);
@@ -1,10 +1,12 @@
 package com.practica1.engine;
 
-import java.awt.image.BufferedImage;
-
 public interface Image {
+   // Tamaño del archivo original, aunque se haya decodificado a menor resolución
    public int getWidth();
 
    public int getHeight();
 
+   // Bytes que ocupa la imagen decodificada en memoria
+   public long getByteSize();
+
 }
@@ -0,0 +1,34 @@
+package com.practica1.engine;
+
+/**
+ * Imagen cargada con Graphics.loadImageAsync. Se puede guardar y dibujar desde el primer frame:
+ * mientras no esté lista los motores dibujan en su lugar un marcador del mismo tamaño.
+ */
+public class ImageHandle extends AssetHandle<Image> implements Image {
+
+    private final int widthHint, heightHint; // Tamaño original si se conoce antes de decodificar (0 si no)
+
+    public ImageHandle(int widthHint, int heightHint) {
+        this.widthHint = widthHint;
+        this.heightHint = heightHint;
+    }
+
+    @Override
+    public int getWidth() {
+        Image image = get();
+        return (image != null) ? image.getWidth() : widthHint;
+    }
+
+    @Override
+    public int getHeight() {
+        Image image = get();
+        return (image != null) ? image.getHeight() : heightHint;
+    }
+
+    // La imagen la cuenta la caché de recursos; el handle no ocupa nada aparte
+    @Override
+    public long getByteSize() {
+        Image image = get();
+        return (image != null) ? image.getByteSize() : 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.practica1.engine;
+
+import java.io.IOException;
+
+// La etiqueta de integridad de un archivo no coincide con su contenido (modificado, truncado o dañado)
+public class IntegrityException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IntegrityException(String message) {
+        super(message);
+    }
+}
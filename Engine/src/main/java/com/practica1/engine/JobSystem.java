@@ -0,0 +1,122 @@
+package com.practica1.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sistema de trabajos en segundo plano del motor.
+ * - cpu(): pool acotado de hilos para trabajo de cálculo (decodificar imágenes, parsear niveles, hashes).
+ * - io(): ejecutor para trabajo que se bloquea en disco o red (un hilo por tarea, se reutilizan).
+ * El callback de cada trabajo no se ejecuta en el hilo del trabajador sino en el hilo del juego,
+ * al principio del siguiente frame, así que puede tocar escenas y estado del juego sin locks.
+ *
+ * Los trabajos siguen ejecutándose con el bucle del motor en pausa, pero sus callbacks no: se quedan
+ * en cola y se ejecutan en el primer frame tras reanudar. Lo que tenga que terminar antes de que la
+ * aplicación pase a segundo plano (p. ej. un guardado) debe esperar al Future del trabajo, no al
+ * callback. Al cerrar, el motor llama a shutdown().
+ */
+public class JobSystem {
+
+    // Callback de fin de trabajo. Se llama en el hilo del juego con el resultado o con el error.
+    public interface Completion<T> {
+        void done(T result, Exception error);
+    }
+
+    private final ExecutorService cpuPool;
+    private final ExecutorService ioExecutor;
+    private final ConcurrentLinkedQueue<Runnable> completions = new ConcurrentLinkedQueue<>(); // Pendientes para el hilo del juego
+
+    // Un hilo de cálculo por núcleo, dejando uno libre para el hilo del juego
+    public JobSystem() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                Executors.newCachedThreadPool(threadFactory("JobIO")));
+    }
+
+    /**
+     * @param cpuThreads Número de hilos del pool de cálculo.
+     * @param ioExecutor Ejecutor para trabajo bloqueante (el motor puede pasar uno propio de la plataforma).
+     */
+    public JobSystem(int cpuThreads, ExecutorService ioExecutor) {
+        this.cpuPool = Executors.newFixedThreadPool(cpuThreads, threadFactory("JobCPU"));
+        this.ioExecutor = ioExecutor;
+    }
+
+    // Trabajo de cálculo en el pool acotado
+    public <T> Future<T> cpu(Callable<T> work, Completion<T> completion) {
+        return submit(cpuPool, work, completion);
+    }
+
+    // Trabajo bloqueante (lectura/escritura de archivos)
+    public <T> Future<T> io(Callable<T> work, Completion<T> completion) {
+        return submit(ioExecutor, work, completion);
+    }
+
+    // Encola algo para ejecutarlo en el hilo del juego al principio del siguiente frame
+    public void runOnGameThread(Runnable runnable) {
+        completions.add(runnable);
+    }
+
+    // Ejecuta los callbacks pendientes. Lo llama el motor desde el hilo del juego cada frame.
+    public void runCompletions() {
+        Runnable completion;
+        while ((completion = completions.poll()) != null) {
+            try {
+                completion.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // un callback roto no debe tumbar el bucle
+            }
+        }
+    }
+
+    // Para los hilos de trabajo: los trabajos ya encolados terminan, no se aceptan nuevos y los
+    // callbacks pendientes ya no se ejecutan. Lo llama el motor al cerrarse.
+    public void shutdown() {
+        cpuPool.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> work, Completion<T> completion) {
+        FutureTask<T> task = new FutureTask<T>(work) {
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                T result = null;
+                Exception error = null;
+                try {
+                    result = get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    error = (cause instanceof Exception) ? (Exception) cause : e;
+                } catch (InterruptedException e) {
+                    error = e;
+                }
+                if (completion != null) {
+                    final T finalResult = result;
+                    final Exception finalError = error;
+                    completions.add(() -> completion.done(finalResult, finalError));
+                } else if (error != null) {
+                    error.printStackTrace(); // sin callback el error se perdería
+                }
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
+    // Hilos daemon con nombre, para que no impidan cerrar la aplicación y se vean en el profiler
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
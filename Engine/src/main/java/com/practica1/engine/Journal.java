@@ -0,0 +1,178 @@
+package com.practica1.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+/**
+ * Diario de cambios de SaveStore: registros pequeños que se añaden al final del archivo en lugar de
+ * reescribir el guardado entero. Solo lo usa SaveStore, desde su hilo de escritura.
+ *
+ * Formato: 'P' 'B' 'J' versión | generación (8 bytes) | registros. Cada registro es
+ * longitud (varint) | datos | etiqueta (8 bytes), donde la etiqueta es el HMAC de la etiqueta
+ * anterior y los datos: los registros quedan encadenados, así que no se pueden editar, repetir ni
+ * reordenar sin la clave. La generación es la de la foto del guardado a la que se aplican; el diario
+ * de otra generación ya está incluido en la foto y se ignora.
+ *
+ * Un registro a medias al final (la aplicación murió mientras se escribía) se descarta al leer.
+ */
+final class Journal {
+
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = {'P', 'B', 'J'};
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 8;
+    static final int TAG_SIZE = 8;
+
+    private final File file;
+    private final SecretKey key;
+
+    private long generation = -1; // Generación del archivo en disco (-1: no hay o no vale)
+    private byte[] lastTag; // Etiqueta del último registro, para encadenar el siguiente
+    private long size = 0; // Bytes del archivo
+
+    Journal(File file, SecretKey key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Bytes que ocupa en el diario un registro de `length` bytes
+    static int framedSize(int length) {
+        return varintSize(length) + length + TAG_SIZE;
+    }
+
+    /**
+     * Registros válidos del diario si es de `expected`; si es de otra generación devuelve una lista
+     * vacía. Si el final está roto, se reescribe el archivo solo con la parte válida.
+     */
+    List<byte[]> read(long expected) throws IOException {
+        byte[] data = file.readBytes();
+        generation = -1;
+        size = 0;
+        if (data == null || data.length < HEADER_SIZE || !hasHeader(data)) return Collections.emptyList();
+        long fileGeneration = readLong(data, MAGIC.length + 1);
+        if (fileGeneration != expected) return Collections.emptyList();
+
+        Mac mac = SaveStore.newMac(key);
+        byte[] tag = tag(mac, null, data, 0, HEADER_SIZE);
+        List<byte[]> records = new ArrayList<>();
+        int pos = HEADER_SIZE;
+        while (pos < data.length) {
+            // Longitud del registro
+            int length = 0, shift = 0, p = pos;
+            boolean complete = false;
+            while (p < data.length && shift < 32) {
+                int b = data[p++] & 0xff;
+                length |= (b & 0x7f) << shift;
+                shift += 7;
+                if ((b & 0x80) == 0) {
+                    complete = true;
+                    break;
+                }
+            }
+            if (!complete || length < 0 || length > data.length - p - TAG_SIZE) break; // registro a medias
+
+            byte[] expectedTag = tag(mac, tag, data, p, length);
+            byte[] stored = Arrays.copyOfRange(data, p + length, p + length + TAG_SIZE);
+            if (!java.security.MessageDigest.isEqual(expectedTag, stored)) {
+                throw new IntegrityException("Registro del diario con etiqueta incorrecta en la posición " + pos);
+            }
+            records.add(Arrays.copyOfRange(data, p, p + length));
+            tag = expectedTag;
+            pos = p + length + TAG_SIZE;
+        }
+
+        if (pos < data.length) {
+            // Cola rota: se quita para poder seguir añadiendo detrás
+            file.writeBytes(Arrays.copyOf(data, pos));
+        }
+        generation = fileGeneration;
+        lastTag = tag;
+        size = pos;
+        return records;
+    }
+
+    // Empieza un diario vacío para la foto de `generation`
+    void reset(long generation) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        writeLong(header, MAGIC.length + 1, generation);
+        try (AtomicOutputStream out = file.openOutput()) {
+            out.write(header);
+            out.commit();
+        }
+        this.generation = generation;
+        lastTag = tag(SaveStore.newMac(key), null, header, 0, HEADER_SIZE);
+        size = HEADER_SIZE;
+    }
+
+    // Añade un registro a la foto de `generation` (si el diario es de otra, se empieza uno nuevo)
+    void append(long generation, byte[] record) throws IOException {
+        if (this.generation != generation) reset(generation);
+        byte[] tag = tag(SaveStore.newMac(key), lastTag, record, 0, record.length);
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(framedSize(record.length));
+        int length = record.length;
+        while ((length & ~0x7f) != 0) {
+            framed.write((length & 0x7f) | 0x80);
+            length >>>= 7;
+        }
+        framed.write(length);
+        framed.write(record, 0, record.length);
+        framed.write(tag, 0, TAG_SIZE);
+        try (OutputStream out = file.openAppend()) {
+            framed.writeTo(out);
+        } catch (IOException e) {
+            generation = -1; // no se sabe qué ha llegado al disco: el siguiente registro empieza diario nuevo
+            throw e;
+        }
+        lastTag = tag;
+        size += framed.size();
+    }
+
+    // HMAC truncado de la etiqueta anterior y los datos
+    private static byte[] tag(Mac mac, byte[] previous, byte[] data, int offset, int length) {
+        if (previous != null) mac.update(previous);
+        mac.update(data, offset, length);
+        return Arrays.copyOf(mac.doFinal(), TAG_SIZE);
+    }
+
+    private static boolean hasHeader(byte[] data) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) return false;
+        }
+        return (data[MAGIC.length] & 0xff) == VERSION;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7f) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static long readLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) value = value << 8 | (data[offset + i] & 0xff);
+        return value;
+    }
+
+    static void writeLong(byte[] data, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            data[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.practica1.engine;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+
+/**
+ * Lee datos escritos con MacOutputStream calculando su MAC mientras se leen. La etiqueta no se lee a
+ * través de este flujo: quien lee sabe dónde acaba el bloque (p. ej. por su longitud), lee la etiqueta
+ * del flujo de debajo y la comprueba con matches(), que empieza un MAC nuevo para el bloque siguiente.
+ */
+public class MacInputStream extends FilterInputStream {
+
+    private final Mac mac;
+
+    // `mac` ya inicializado con la clave (y actualizado con lo que se haya leído antes de este flujo)
+    public MacInputStream(InputStream in, Mac mac) {
+        super(in);
+        this.mac = mac;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) mac.update((byte) b);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) mac.update(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Hay que leer lo que se salta para que entre en el MAC
+        byte[] scratch = new byte[512];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+            if (r < 0) break;
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * true si `tag` (quizá truncada, como la escribe MacOutputStream) es la etiqueta de lo leído
+     * desde la comprobación anterior. La comparación es de tiempo constante.
+     */
+    public boolean matches(byte[] tag) {
+        byte[] expected = mac.doFinal();
+        return tag.length > 0 && tag.length <= expected.length
+                && MessageDigest.isEqual(Arrays.copyOf(expected, tag.length), tag);
+    }
+}
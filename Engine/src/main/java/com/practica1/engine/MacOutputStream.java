@@ -0,0 +1,52 @@
+package com.practica1.engine;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.crypto.Mac;
+
+/**
+ * Calcula un MAC (p. ej. HMAC-SHA256) de todo lo que pasa por el flujo, a la vez que se escribe, y
+ * lo añade detrás con writeTag(). Después de la etiqueta empieza un MAC nuevo, así que un mismo flujo
+ * sirve para varios bloques con su propia etiqueta (las secciones de SaveStore). Lo contrario es
+ * MacInputStream.
+ */
+public class MacOutputStream extends FilterOutputStream {
+
+    private final Mac mac;
+    private final int tagLength;
+
+    // `mac` ya inicializado con la clave; la etiqueta se trunca a `tagLength` bytes
+    public MacOutputStream(OutputStream out, Mac mac, int tagLength) {
+        super(out);
+        if (tagLength <= 0 || tagLength > mac.getMacLength()) {
+            throw new IllegalArgumentException("Longitud de etiqueta no válida: " + tagLength);
+        }
+        this.mac = mac;
+        this.tagLength = tagLength;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        mac.update((byte) b);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        mac.update(b, off, len);
+        out.write(b, off, len);
+    }
+
+    // Escribe la etiqueta de lo escrito desde la anterior (la etiqueta no entra en el MAC siguiente)
+    public void writeTag() throws IOException {
+        out.write(mac.doFinal(), 0, tagLength);
+    }
+
+    // No cierra el flujo de debajo, que es de quien lo abrió (y decide si publicarlo con commit())
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,282 @@
+package com.practica1.engine;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Caché compartida de recursos (imágenes, fuentes, sonidos) que usan Graphics y Audio por debajo
+ * de newImage/newFont/newSound. Cada recurso se identifica por su ruta y sus parámetros y se carga
+ * una sola vez aunque lo pidan varias escenas.
+ *
+ * Cada recurso guarda qué dueños (escenas) lo usan. Al soltar un dueño con release(), los recursos
+ * que se quedan sin dueños no se liberan enseguida: se mantienen por si la siguiente escena los
+ * vuelve a pedir y solo se eliminan, del menos usado recientemente al más, cuando el total
+ * supera el presupuesto de memoria, o todos a la vez con evictUnused(). Un recurso sin dueño que
+ * se sigue usando (un sonido que aún suena tras salir de su escena) no se libera todavía: se queda
+ * en caché y se libera en la siguiente expulsión en la que ya no se use.
+ *
+ * El tamaño de cada recurso lo da su implementación (Image/Sound/Font.getByteSize()). Se puede
+ * consultar el total y el desglose por dueño (getUsageByOwner); si lo que usan las escenas no cabe
+ * en el presupuesto ni después de expulsar lo que no tiene dueño se avisa al BudgetListener.
+ */
+public class ResourceManager {
+
+    public interface Loader<T> {
+        T load(); // Devuelve null si el recurso no se ha podido cargar
+    }
+
+    public interface Sizer<T> {
+        long sizeOf(T resource); // Bytes aproximados que ocupa el recurso
+    }
+
+    public interface Disposer<T> {
+        void dispose(T resource); // Libera la memoria nativa del recurso
+    }
+
+    public interface InUse<T> {
+        boolean inUse(T resource); // true si no se puede liberar aún (p. ej. un sonido sonando)
+    }
+
+    // Aviso de que los recursos con dueño superan el presupuesto (se llama con el lock tomado)
+    public interface BudgetListener {
+        void overBudget(long usedBytes, long budget, Map<String, Long> usageByOwner);
+    }
+
+    // Por defecto se escribe el desglose en la salida de error
+    public static final BudgetListener LOG_OVER_BUDGET = (used, budget, byOwner) ->
+            System.err.println("Recursos por encima del presupuesto: " + used + "/" + budget + " bytes " + byOwner);
+
+    public static final String UNOWNED = "(sin dueño)"; // Recursos en caché que ya no usa ninguna escena
+
+    public static final long DEFAULT_BUDGET = 128L * 1024 * 1024; // 128 MB
+
+    // Dueño de los recursos pedidos sin escena (nunca se suelta)
+    private static final Object GLOBAL_OWNER = new Object();
+
+    private static final class Entry {
+        final Object resource;
+        final long bytes;
+        final Disposer<Object> disposer;
+        final InUse<Object> inUse;
+        final Set<Object> owners = new HashSet<>();
+
+        Entry(Object resource, long bytes, Disposer<Object> disposer, InUse<Object> inUse) {
+            this.resource = resource;
+            this.bytes = bytes;
+            this.disposer = disposer;
+            this.inUse = inUse;
+        }
+
+        // Sin dueños y sin usarse: se puede liberar
+        boolean evictable() {
+            return owners.isEmpty() && (inUse == null || !inUse.inUse(resource));
+        }
+    }
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ThreadLocal<Object> threadOwner = new ThreadLocal<>(); // Dueño mientras se construye una escena
+    private volatile Object defaultOwner = GLOBAL_OWNER; // Dueño de las peticiones del hilo del juego
+    private final Map<Object, String> ownerNames = new HashMap<>(); // Nombre de cada dueño en los informes
+    // Dueños ya soltados: una carga en segundo plano que termina después ya no se les apunta
+    private final Set<Object> releasedOwners = Collections.newSetFromMap(new WeakHashMap<>());
+    private long budget = DEFAULT_BUDGET;
+    private long usedBytes = 0;
+    private int hits = 0, misses = 0;
+    private BudgetListener budgetListener = LOG_OVER_BUDGET;
+    private boolean overBudget = false; // Ya se ha avisado; no se repite hasta volver a entrar en presupuesto
+
+    // -- DUEÑOS --
+
+    // Fija el dueño de los recursos que pida este hilo y devuelve el anterior (para restaurarlo)
+    public Object setThreadOwner(Object owner) {
+        Object previous = threadOwner.get();
+        if (owner == null) threadOwner.remove();
+        else threadOwner.set(owner);
+        return previous;
+    }
+
+    // Dueño de los recursos que se pidan fuera de la construcción de una escena (la escena actual)
+    public void setDefaultOwner(Object owner) {
+        defaultOwner = (owner == null) ? GLOBAL_OWNER : owner;
+    }
+
+    // Dueño al que se apuntarían ahora los recursos pedidos desde este hilo
+    public Object getCurrentOwner() {
+        return currentOwner();
+    }
+
+    // Nombre con el que aparece un dueño en los informes (p. ej. la clase de la escena)
+    public synchronized void setOwnerName(Object owner, String name) {
+        if (owner != null) ownerNames.put(owner, name);
+    }
+
+    // Suelta todos los recursos de un dueño; los que quedan sin dueños pasan a ser expulsables
+    public synchronized void release(Object owner) {
+        if (owner == null) return;
+        if (owner != GLOBAL_OWNER) releasedOwners.add(owner);
+        for (Entry entry : entries.values()) {
+            entry.owners.remove(owner);
+        }
+        ownerNames.remove(owner);
+        trim();
+    }
+
+    // true si el dueño ya se ha soltado con release() (su escena ya no existe)
+    public synchronized boolean isReleased(Object owner) {
+        return releasedOwners.contains(owner);
+    }
+
+    // Libera ya todos los recursos sin dueño que no se estén usando, sin esperar a superar el presupuesto
+    public synchronized void evictUnused() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (!entry.evictable()) continue;
+            it.remove();
+            usedBytes -= entry.bytes;
+            if (entry.disposer != null) entry.disposer.dispose(entry.resource);
+        }
+        overBudget = usedBytes > budget;
+    }
+
+    // -- ACCESO --
+
+    /**
+     * Devuelve el recurso de `key`, cargándolo con `loader` si no está en caché,
+     * y lo apunta al dueño actual del hilo. Si ese dueño ya se ha soltado (la escena se descartó
+     * mientras se cargaba) el recurso se queda en caché sin dueño, así que se puede expulsar.
+     */
+    public <T> T acquire(String key, Loader<T> loader, Sizer<T> sizer, Disposer<T> disposer) {
+        return acquire(key, loader, sizer, disposer, null);
+    }
+
+    // Igual, con una comprobación de si el recurso se sigue usando aunque no tenga dueño (null: nunca)
+    @SuppressWarnings("unchecked")
+    public <T> T acquire(String key, Loader<T> loader, Sizer<T> sizer, Disposer<T> disposer, InUse<T> inUse) {
+        Object owner = currentOwner();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                addOwner(entry, owner);
+                return (T) entry.resource;
+            }
+            misses++;
+        }
+
+        // La carga se hace fuera del lock para no bloquear al hilo del juego mientras se decodifica
+        T resource = loader.load();
+        if (resource == null) return null;
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                // Otro hilo lo cargó a la vez: nos quedamos con el suyo
+                if (disposer != null) disposer.dispose(resource);
+            } else {
+                long bytes = (sizer == null) ? 0 : sizer.sizeOf(resource);
+                entry = new Entry(resource, bytes, (Disposer<Object>) disposer, (InUse<Object>) inUse);
+                entries.put(key, entry);
+                usedBytes += bytes;
+            }
+            addOwner(entry, owner);
+            trim();
+            return (T) entry.resource;
+        }
+    }
+
+    // -- PRESUPUESTO --
+
+    public synchronized void setBudget(long bytes) {
+        budget = bytes;
+        trim();
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void setBudgetListener(BudgetListener listener) {
+        budgetListener = listener;
+    }
+
+    /**
+     * Bytes que usa cada dueño. Un recurso compartido cuenta entero para cada escena que lo usa,
+     * así que la suma puede superar getUsedBytes(); los recursos en caché sin dueño van en UNOWNED.
+     */
+    public synchronized Map<String, Long> getUsageByOwner() {
+        Map<String, Long> usage = new LinkedHashMap<>();
+        for (Entry entry : entries.values()) {
+            if (entry.owners.isEmpty()) {
+                usage.merge(UNOWNED, entry.bytes, Long::sum);
+                continue;
+            }
+            for (Object owner : entry.owners) {
+                usage.merge(ownerName(owner), entry.bytes, Long::sum);
+            }
+        }
+        return usage;
+    }
+
+    // Bytes de los recursos que usa un dueño concreto
+    public synchronized long getOwnerBytes(Object owner) {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.owners.contains(owner)) bytes += entry.bytes;
+        }
+        return bytes;
+    }
+
+    public synchronized String report() {
+        return "resources=" + entries.size() + " used=" + usedBytes + "/" + budget
+                + " hits=" + hits + " misses=" + misses + " byOwner=" + getUsageByOwner();
+    }
+
+    // Elimina los recursos sin dueño menos usados hasta volver a entrar en el presupuesto.
+    // Los recursos con dueño (o en uso) nunca se eliminan, aunque se supere el presupuesto: entonces se avisa.
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > budget && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (!entry.evictable()) continue;
+            it.remove();
+            usedBytes -= entry.bytes;
+            if (entry.disposer != null) entry.disposer.dispose(entry.resource);
+        }
+        boolean over = usedBytes > budget;
+        if (over && !overBudget && budgetListener != null) {
+            budgetListener.overBudget(usedBytes, budget, getUsageByOwner());
+        }
+        overBudget = over;
+    }
+
+    private void addOwner(Entry entry, Object owner) {
+        if (!releasedOwners.contains(owner)) entry.owners.add(owner);
+    }
+
+    private String ownerName(Object owner) {
+        if (owner == GLOBAL_OWNER) return "(global)";
+        String name = ownerNames.get(owner);
+        return (name != null) ? name : "escena@" + Integer.toHexString(System.identityHashCode(owner));
+    }
+
+    private Object currentOwner() {
+        Object owner = threadOwner.get();
+        return (owner != null) ? owner : defaultOwner;
+    }
+}
@@ -0,0 +1,511 @@
+package com.practica1.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+/**
+ * Guardado de la partida en un solo archivo con etiquetas de integridad.
+ *
+ * El guardado se divide en secciones (el juego decide cuáles: progreso, monedas, tablero...) y cada
+ * una lleva su propia etiqueta: 'P' 'B' 'S' versión | generación (8 bytes) | número de secciones |
+ * secciones, y cada sección es id | longitud | datos | HMAC-SHA256 truncado de la cabecera, la
+ * generación, el id y los datos. La etiqueta se calcula mientras se escribe o se lee el archivo
+ * (MacOutputStream/MacInputStream sobre File.openOutput y File.openInput), sin tener el archivo entero
+ * en memoria; openOutput además lo sustituye de forma atómica. La clave la da el motor
+ * (Engine.getSaveKey) y no está en el archivo, así que editarlo a mano invalida la etiqueta de las
+ * secciones tocadas.
+ *
+ * Con copia de seguridad (`backup`), antes de cada foto nueva se copia ahí el archivo si se sabe que
+ * está entero y bien. Al cargar, una sección dañada del archivo se sustituye por la de la copia y las demás
+ * se quedan como estaban (Status.RECOVERED); solo si no hay ninguna sección válida en ninguno de los
+ * dos archivos el guardado está CORRUPTED.
+ *
+ * save() se llama en el hilo del juego con una foto del estado ya copiada; la codificación y la
+ * escritura se hacen en el ejecutor de E/S del JobSystem. Si se piden varios guardados mientras se
+ * escribe uno, solo se escribe el último.
+ *
+ * Con un diario (Journal) los cambios pequeños se guardan con append(), que añade unos pocos bytes en
+ * lugar de reescribir la foto. Cada foto lleva un número de generación y el diario empieza de cero con
+ * cada foto nueva; al cargar, load() da la foto y loadJournal() los registros que hay que aplicarle.
+ * Las fotos y los registros se escriben en el orden en que se piden, y una foto pedida hace innecesarios
+ * los registros anteriores que aún no se habían escrito.
+ *
+ * Solo se lee la versión actual. Un archivo sin la cabecera es un guardado en JSON de antes de este
+ * formato y se devuelve entero (Status.LEGACY) para que el juego lo migre; cualquier otra versión se
+ * rechaza, porque una versión sin clave permitiría fabricar un guardado válido sin conocerla.
+ */
+public class SaveStore {
+
+    public enum Status {
+        MISSING,   // No hay guardado
+        VALID,     // Guardado con todas las etiquetas correctas
+        RECOVERED, // Alguna sección estaba dañada: se ha tomado de la copia de seguridad o se ha perdido
+        LEGACY,    // Guardado de versiones anteriores, sin etiqueta en el archivo
+        CORRUPTED  // Ninguna etiqueta coincide: el archivo se ha modificado o está dañado
+    }
+
+    public static final int VERSION = 4;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] MAGIC = {'P', 'B', 'S'};
+    private static final int HEADER_SIZE = MAGIC.length + 1; // Sin la generación
+    private static final int SECTION_TAG_SIZE = 16;
+
+    private final File file;
+    private final File backup; // null si no se usa copia de seguridad
+    private final JobSystem jobs;
+    private final SecretKey key;
+    private final Journal journal; // null si no se usa diario
+    private volatile long generation = 0; // Generación de la foto en disco
+    private volatile boolean journalStale = false; // La foto cargada no es la del archivo entera
+    private volatile boolean fileGood = false; // El archivo está entero y bien: pasa a la copia al escribir otro
+
+    // Escrituras pendientes en orden: fotos (Callable con las secciones) y registros del diario (byte[])
+    private final Object lock = new Object();
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+    private boolean writing = false;
+    private long journalSize = 0; // Bytes del diario contando los registros pendientes
+
+    public SaveStore(File file, JobSystem jobs, SecretKey key) {
+        this(file, null, null, jobs, key);
+    }
+
+    // `backup` guarda la última foto buena (ver load) y `journal` es el archivo del diario (ver append)
+    public SaveStore(File file, File backup, File journal, JobSystem jobs, SecretKey key) {
+        this.file = file;
+        this.backup = backup;
+        this.jobs = jobs;
+        this.key = key;
+        this.journal = (journal == null) ? null : new Journal(journal, key);
+    }
+
+    // -- LECTURA --
+
+    public Status check() {
+        try {
+            return read().status;
+        } catch (IntegrityException e) {
+            return Status.CORRUPTED;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Status.CORRUPTED;
+        }
+    }
+
+    /**
+     * Foto guardada: sus secciones válidas (las dañadas se toman de la copia de seguridad si la hay),
+     * o los datos enteros si es un guardado en JSON. Lanza IntegrityException si no hay nada válido.
+     */
+    public Snapshot load() throws IOException {
+        Snapshot snapshot = read();
+        generation = snapshot.generation;
+        journalStale = snapshot.status == Status.RECOVERED;
+        return snapshot;
+    }
+
+    /**
+     * Registros del diario que hay que aplicar, en orden, a la foto que ha devuelto load() (llamar
+     * después). Lanza IntegrityException si algún registro se ha modificado. Si la foto es RECOVERED no
+     * se devuelve nada: los registros se escribieron sobre la foto dañada y aplicarlos a una sección más
+     * antigua o por defecto (p. ej. sumar monedas) daría un resultado falso.
+     */
+    public List<byte[]> loadJournal() throws IOException {
+        if (journal == null) return Collections.emptyList();
+        if (journalStale) {
+            System.err.println("Guardado dañado: se descarta el diario");
+            return Collections.emptyList();
+        }
+        List<byte[]> records = journal.read(generation);
+        synchronized (lock) {
+            journalSize = journal.size();
+        }
+        return records;
+    }
+
+    // Resultado de load()
+    public static final class Snapshot {
+        private final Status status;
+        private final byte[] payload; // Guardado en JSON (LEGACY): los datos enteros
+        private final Map<Integer, byte[]> sections; // Secciones válidas por id
+        private final Set<Integer> recovered; // Secciones tomadas de la copia de seguridad
+        private final long generation;
+        private final boolean complete; // Todas las secciones del archivo son válidas
+
+        private Snapshot(Status status, byte[] payload, long generation) {
+            this(status, payload, null, Collections.emptySet(), generation, true);
+        }
+
+        private Snapshot(Status status, byte[] payload, Map<Integer, byte[]> sections, Set<Integer> recovered,
+                         long generation, boolean complete) {
+            this.status = status;
+            this.payload = payload;
+            this.sections = (sections == null) ? Collections.emptyMap() : Collections.unmodifiableMap(sections);
+            this.recovered = Collections.unmodifiableSet(recovered);
+            this.generation = generation;
+            this.complete = complete;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        // Datos de un guardado en JSON anterior a este formato (o null)
+        public byte[] getPayload() {
+            return payload;
+        }
+
+        // Datos de una sección, o null si no está o no tiene ninguna copia válida
+        public byte[] getSection(int id) {
+            return sections.get(id);
+        }
+
+        public Set<Integer> getSectionIds() {
+            return sections.keySet();
+        }
+
+        // Secciones que estaban dañadas y se han tomado de la copia de seguridad
+        public Set<Integer> getRecovered() {
+            return recovered;
+        }
+    }
+
+    // Lee el archivo y, si no está entero, completa las secciones que falten con la copia de seguridad
+    private Snapshot read() throws IOException {
+        Snapshot primary = null;
+        IntegrityException damage = null;
+        try {
+            primary = readFile(file);
+        } catch (IntegrityException e) {
+            damage = e;
+        }
+        fileGood = primary != null && primary.complete && primary.status == Status.VALID;
+        if (primary != null && primary.complete && (primary.status != Status.MISSING || backup == null)) {
+            return primary;
+        }
+
+        Snapshot good = null;
+        if (backup != null) {
+            try {
+                good = readFile(backup);
+            } catch (IntegrityException e) {
+                e.printStackTrace(); // la copia tampoco vale
+            }
+        }
+        if (good == null || good.sections.isEmpty()) {
+            if (primary != null) return primary; // no hay guardado, o solo lo que queda del archivo
+            throw damage;
+        }
+
+        Map<Integer, byte[]> sections = new TreeMap<>();
+        Set<Integer> recovered = new TreeSet<>();
+        long fileGeneration = good.generation;
+        if (primary != null && primary.status != Status.MISSING) {
+            sections.putAll(primary.sections);
+            fileGeneration = primary.generation; // el diario sigue siendo el de este archivo
+        }
+        for (Map.Entry<Integer, byte[]> section : good.sections.entrySet()) {
+            if (sections.putIfAbsent(section.getKey(), section.getValue()) == null) recovered.add(section.getKey());
+        }
+        return new Snapshot(Status.RECOVERED, null, sections, recovered, fileGeneration, false);
+    }
+
+    private Snapshot readFile(File source) throws IOException {
+        InputStream raw;
+        try {
+            raw = source.openInput();
+        } catch (FileNotFoundException e) {
+            return new Snapshot(Status.MISSING, null, 0);
+        }
+        try (InputStream in = new BufferedInputStream(raw)) {
+            byte[] header = new byte[HEADER_SIZE];
+            int read = readFully(in, header, 0);
+            if (read == 0) {
+                return new Snapshot(Status.MISSING, null, 0);
+            }
+            if (read < MAGIC.length || !hasHeader(header)) {
+                // Guardado anterior a este formato: se devuelve entero
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                data.write(header, 0, read);
+                copy(in, data);
+                return new Snapshot(Status.LEGACY, data.toByteArray(), 0);
+            }
+            if (read < HEADER_SIZE) throw new IntegrityException("Guardado truncado");
+
+            int version = header[MAGIC.length] & 0xff;
+            if (version != VERSION) throw new IntegrityException("Versión de guardado no soportada: " + version);
+            return readSections(in, header);
+        }
+    }
+
+    /*
+     * Secciones de un guardado de la versión actual, comprobando la etiqueta de cada una mientras se
+     * lee. Las que tienen la etiqueta mal se saltan; si el archivo está truncado se devuelven las que se
+     * han podido leer. Solo si no hay ninguna válida se lanza IntegrityException.
+     */
+    private Snapshot readSections(InputStream in, byte[] header) throws IOException {
+        byte[] prefix = new byte[HEADER_SIZE + 8];
+        System.arraycopy(header, 0, prefix, 0, HEADER_SIZE);
+        if (readFully(in, prefix, HEADER_SIZE) < prefix.length) throw new IntegrityException("Guardado truncado");
+        long fileGeneration = Journal.readLong(prefix, HEADER_SIZE);
+
+        int count = readVarint(in);
+        if (count < 0) throw new IntegrityException("Guardado truncado");
+        Map<Integer, byte[]> sections = new TreeMap<>();
+        boolean complete = true;
+        Mac mac = newMac(key);
+        MacInputStream framed = new MacInputStream(in, mac);
+        byte[] tag = new byte[SECTION_TAG_SIZE];
+        for (int i = 0; i < count; i++) {
+            mac.update(prefix);
+            int id = readVarint(framed);
+            int length = readVarint(framed);
+            byte[] data = (id < 0 || length < 0) ? null : readData(framed, length);
+            if (data == null || readFully(in, tag, 0) < tag.length) {
+                complete = false; // truncado: lo que sigue no se puede separar en secciones
+                break;
+            }
+            if (framed.matches(tag)) {
+                sections.put(id, data);
+            } else {
+                complete = false;
+            }
+        }
+        if (in.read() != -1) complete = false;
+        if (sections.isEmpty() && count != 0) throw new IntegrityException("Ninguna sección del guardado es válida");
+        Status status = complete ? Status.VALID : Status.RECOVERED;
+        return new Snapshot(status, null, sections, Collections.emptySet(), fileGeneration, complete);
+    }
+
+    // Varint sin signo; -1 si el archivo se acaba antes
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) return -1;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        return -1;
+    }
+
+    /*
+     * Los `length` bytes siguientes, o null si el archivo se acaba antes. Se leen por partes para que
+     * una longitud dañada no reserve de golpe un array enorme.
+     */
+    private static byte[] readData(InputStream in, int length) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(Math.min(length, 512));
+        byte[] buffer = new byte[512];
+        while (data.size() < length) {
+            int n = in.read(buffer, 0, Math.min(buffer.length, length - data.size()));
+            if (n < 0) return null;
+            data.write(buffer, 0, n);
+        }
+        return data.toByteArray();
+    }
+
+    private static boolean hasHeader(byte[] data) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    // -- ESCRITURA --
+
+    /*
+     * Escribe ya la foto, en este hilo; devuelve false si no se ha podido. Antes se copia el archivo a
+     * la copia de seguridad si está bien, así que siempre queda una foto entera aunque esta se dañe.
+     */
+    public boolean write(Map<Integer, byte[]> sections) {
+        if (backup != null && fileGood && !copyFile(file, backup)) {
+            System.err.println("No se ha podido actualizar la copia de seguridad del guardado");
+        }
+        long next = generation + 1;
+        try (AtomicOutputStream target = file.openOutput()) {
+            OutputStream out = new BufferedOutputStream(target);
+            writeSections(out, next, sections);
+            out.flush();
+            target.commit();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false; // sin commit() se conserva el guardado anterior
+        }
+        fileGood = true;
+        generation = next;
+        return true;
+    }
+
+    private void writeSections(OutputStream out, long generation, Map<Integer, byte[]> sections) throws IOException {
+        byte[] header = new byte[HEADER_SIZE + 8];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        Journal.writeLong(header, HEADER_SIZE, generation);
+
+        out.write(header);
+        writeVarint(out, sections.size());
+        Mac mac = newMac(key);
+        MacOutputStream framed = new MacOutputStream(out, mac, SECTION_TAG_SIZE);
+        for (Map.Entry<Integer, byte[]> section : sections.entrySet()) {
+            byte[] data = section.getValue();
+            mac.update(header); // la etiqueta cubre también la cabecera y la generación
+            writeVarint(framed, section.getKey());
+            writeVarint(framed, data.length);
+            framed.write(data);
+            framed.writeTag();
+        }
+    }
+
+    private static boolean copyFile(File source, File target) {
+        try (InputStream in = source.openInput(); AtomicOutputStream out = target.openOutput()) {
+            copy(in, out);
+            out.commit();
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Pide un guardado. `encoder` se ejecuta en segundo plano, así que debe trabajar sobre una copia
+     * del estado hecha antes de llamar. Sustituye a las fotos y registros que aún no se han escrito,
+     * porque la foto ya los incluye.
+     */
+    public void save(Callable<Map<Integer, byte[]>> encoder) {
+        synchronized (lock) {
+            pending.clear();
+            pending.add(encoder);
+            journalSize = 0;
+            start();
+        }
+    }
+
+    /**
+     * Añade un registro al diario (en segundo plano, detrás de lo ya pedido). El registro se aplica a
+     * la foto en disco cuando se carga, así que debe describir un cambio hecho después de la última
+     * foto pedida con save().
+     */
+    public void append(byte[] record) {
+        if (journal == null) throw new IllegalStateException("SaveStore sin diario");
+        synchronized (lock) {
+            pending.add(record);
+            journalSize += Journal.framedSize(record.length);
+            start();
+        }
+    }
+
+    // Bytes que ocupará el diario al escribir lo pendiente; para decidir cuándo hacer una foto nueva
+    public long getJournalSize() {
+        synchronized (lock) {
+            return journalSize;
+        }
+    }
+
+    // Espera a que se escriban los guardados pendientes; devuelve false si se agota el tiempo
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (writing) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Lanza el hilo de escritura si no está ya en marcha (con el lock tomado)
+    private void start() {
+        if (writing) return;
+        writing = true;
+        jobs.io(() -> {
+            drain();
+            return null;
+        }, null);
+    }
+
+    // Escribe fotos y registros hasta que no quede nada pendiente
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        while (true) {
+            Object next;
+            synchronized (lock) {
+                next = pending.poll();
+                if (next == null) {
+                    writing = false;
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            try {
+                if (next instanceof byte[]) {
+                    journal.append(generation, (byte[]) next);
+                } else if (write(((Callable<Map<Integer, byte[]>>) next).call()) && journal != null) {
+                    journal.reset(generation); // lo anterior ya está en la foto
+                }
+            } catch (Exception e) {
+                e.printStackTrace(); // se conserva lo que ya estaba en disco
+            }
+        }
+    }
+
+    // -- UTILIDADES --
+
+    static Mac newMac(SecretKey key) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se puede calcular el " + MAC_ALGORITHM + " del guardado", e);
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // Lee hasta llenar `buffer` desde `offset`; devuelve hasta dónde se ha llenado
+    private static int readFully(InputStream in, byte[] buffer, int offset) throws IOException {
+        int read = offset;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0) break;
+            read += n;
+        }
+        return read;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[512];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
@@ -2,4 +2,6 @@ package com.practica1.engine;
 
 public interface Sound {
 
+    // Bytes que ocupa el sonido cargado en memoria
+    long getByteSize();
 }
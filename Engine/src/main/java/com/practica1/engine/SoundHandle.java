@@ -0,0 +1,13 @@
+package com.practica1.engine;
+
+/**
+ * Sonido cargado con Audio.loadSoundAsync. Reproducirlo antes de que esté listo no hace nada.
+ */
+public class SoundHandle extends AssetHandle<Sound> implements Sound {
+
+    @Override
+    public long getByteSize() {
+        Sound sound = get();
+        return (sound != null) ? sound.getByteSize() : 0;
+    }
+}
@@ -13,4 +13,22 @@ public interface State {
     public int getW();
 
     public int getH();
+
+    // -- CICLO DE VIDA (lo llama SceneManager en el hilo del juego) --
+
+    // La escena pasa a ser la actual
+    public default void onEnter() {
+    }
+
+    // La escena deja de ser la actual; después se liberan los recursos que solo usaba ella
+    public default void onExit() {
+    }
+
+    // La aplicación pasa a segundo plano con esta escena activa (el bucle ya está parado)
+    public default void onPause() {
+    }
+
+    // La aplicación vuelve a primer plano, antes de reanudar el bucle
+    public default void onResume() {
+    }
 }
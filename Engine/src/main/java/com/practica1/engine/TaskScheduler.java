@@ -0,0 +1,131 @@
+package com.practica1.engine;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Planificador de trabajo diferido que se ejecuta en el hilo del juego con el tiempo que sobra
+ * de cada frame (después de render y de presentar, antes de dormir).
+ *
+ * Cada tarea declara cuánto tiempo puede gastar por frame y va comprobando slice.shouldYield()
+ * en sus puntos de corte; cuando devuelve true la tarea debe guardar su progreso y volver.
+ * Las tareas se pueden encolar desde cualquier hilo, pero solo se ejecutan en el hilo del juego.
+ */
+public class TaskScheduler {
+
+    // Trabajo troceable. run() devuelve true cuando la tarea ha terminado del todo.
+    public interface Task {
+        boolean run(Slice slice);
+    }
+
+    // Porción de tiempo concedida a una tarea en este frame
+    public static final class Slice {
+        private long deadline;
+
+        // true si la tarea ha agotado su porción y debe ceder
+        public boolean shouldYield() {
+            return System.nanoTime() >= deadline;
+        }
+
+        // Nanosegundos que le quedan a la tarea en este frame
+        public long remaining() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+    }
+
+    public static final long DEFAULT_BUDGET = 2_000_000L; // 2 ms por frame
+    // Frames seguidos sin tiempo libre tras los que una tarea se ejecuta igualmente
+    private static final int MAX_STARVED_FRAMES = 30;
+
+    private static final class Entry {
+        final Task task;
+        final long budget;
+        int starvedFrames = 0;
+
+        Entry(Task task, long budget) {
+            this.task = task;
+            this.budget = budget;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Entry> incoming = new ConcurrentLinkedQueue<>(); // Tareas recién encoladas
+    private final ArrayDeque<Entry> tasks = new ArrayDeque<>(); // Cola round-robin (solo hilo del juego)
+    private final Slice slice = new Slice();
+
+    public void schedule(Task task) {
+        schedule(task, DEFAULT_BUDGET);
+    }
+
+    // Encola una tarea con un presupuesto máximo de `budgetNanos` por frame
+    public void schedule(Task task, long budgetNanos) {
+        if (task == null) throw new IllegalArgumentException("task == null");
+        if (budgetNanos <= 0) throw new IllegalArgumentException("budgetNanos <= 0");
+        incoming.add(new Entry(task, budgetNanos));
+    }
+
+    // Encola un trabajo corto que se ejecuta de una vez
+    public void schedule(Runnable runnable) {
+        schedule(slice -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    // Número de tareas pendientes (aproximado si se encola desde otros hilos a la vez)
+    public int pending() {
+        return tasks.size() + incoming.size();
+    }
+
+    /**
+     * Ejecuta tareas hasta `deadline` (en System.nanoTime()). Lo llama el motor cada frame.
+     * Cada tarea recibe como mucho su presupuesto; las que no terminan vuelven al final de la cola.
+     */
+    public void runFrame(long deadline) {
+        Entry entry;
+        while ((entry = incoming.poll()) != null) tasks.addLast(entry);
+
+        int count = tasks.size();
+        for (int i = 0; i < count; i++) {
+            entry = tasks.pollFirst();
+            long now = System.nanoTime();
+            long available = deadline - now;
+            if (available <= 0) {
+                // Sin tiempo libre: solo avanzan las tareas que llevan demasiado esperando
+                if (++entry.starvedFrames < MAX_STARVED_FRAMES) {
+                    tasks.addLast(entry);
+                    continue;
+                }
+                available = entry.budget;
+            }
+            entry.starvedFrames = 0;
+            slice.deadline = now + Math.min(entry.budget, available);
+
+            boolean done;
+            try {
+                done = entry.task.run(slice);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // una tarea rota no debe tumbar el bucle
+                done = true;
+            }
+            if (!done) tasks.addLast(entry);
+        }
+    }
+
+    // Ejecuta todas las tareas hasta terminar, sin límite de tiempo (p. ej. antes de cerrar).
+    // Solo desde el hilo del juego o con el bucle parado.
+    public void runAll() {
+        slice.deadline = Long.MAX_VALUE;
+        Entry entry;
+        while ((entry = incoming.poll()) != null) tasks.addLast(entry);
+        while ((entry = tasks.pollFirst()) != null) {
+            try {
+                while (!entry.task.run(slice)) {
+                    // la tarea cede aunque tenga tiempo; se vuelve a llamar hasta que termine
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            while ((entry = incoming.poll()) != null) tasks.addLast(entry);
+        }
+    }
+}
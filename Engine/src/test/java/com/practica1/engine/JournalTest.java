@@ -0,0 +1,65 @@
+package com.practica1.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+public class JournalTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(new byte[32], "HmacSHA256");
+
+    private final MemoryFile file = new MemoryFile();
+
+    @Test
+    public void readsRecordsInOrder() throws Exception {
+        Journal journal = new Journal(file, KEY);
+        journal.append(3, new byte[]{1});
+        journal.append(3, new byte[]{2, 2});
+
+        List<byte[]> records = new Journal(file, KEY).read(3);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[]{1}, records.get(0));
+        assertArrayEquals(new byte[]{2, 2}, records.get(1));
+    }
+
+    @Test
+    public void tornTailIsDropped() throws Exception {
+        Journal journal = new Journal(file, KEY);
+        journal.append(3, new byte[]{1});
+        long complete = file.size();
+        journal.append(3, new byte[]{2, 2, 2});
+        file.truncate(4); // la aplicación murió escribiendo el segundo registro
+
+        Journal reopened = new Journal(file, KEY);
+        List<byte[]> records = reopened.read(3);
+        assertEquals(1, records.size());
+        assertArrayEquals(new byte[]{1}, records.get(0));
+        assertEquals(complete, file.size()); // la cola rota se quita del archivo
+
+        // Se puede seguir añadiendo detrás de lo válido
+        reopened.append(3, new byte[]{4});
+        records = new Journal(file, KEY).read(3);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[]{4}, records.get(1));
+    }
+
+    @Test
+    public void otherGenerationIsIgnored() throws Exception {
+        new Journal(file, KEY).append(3, new byte[]{1});
+        assertTrue(new Journal(file, KEY).read(4).isEmpty());
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void modifiedRecordIsRejected() throws Exception {
+        Journal journal = new Journal(file, KEY);
+        journal.append(3, new byte[]{1});
+        journal.append(3, new byte[]{2});
+        file.flip(file.data.length - Journal.TAG_SIZE - 1); // datos del último registro
+        new Journal(file, KEY).read(3);
+    }
+}
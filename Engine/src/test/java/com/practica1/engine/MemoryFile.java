@@ -0,0 +1,92 @@
+package com.practica1.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// File en memoria para las pruebas; null es un archivo que no existe
+class MemoryFile implements File {
+
+    byte[] data;
+
+    @Override
+    public String getContent() {
+        return (data == null) ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void setContent(String content) {
+        data = content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] readBytes() {
+        return (data == null) ? null : data.clone();
+    }
+
+    @Override
+    public long size() {
+        return (data == null) ? -1 : data.length;
+    }
+
+    @Override
+    public ByteBuffer map() throws IOException {
+        if (data == null) throw new FileNotFoundException();
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes) {
+        data = bytes.clone();
+    }
+
+    @Override
+    public InputStream openInput() throws IOException {
+        if (data == null) throw new FileNotFoundException();
+        return new ByteArrayInputStream(data.clone());
+    }
+
+    @Override
+    public AtomicOutputStream openOutput() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        return new AtomicOutputStream(buffer) {
+            @Override
+            protected void publish() {
+                data = buffer.toByteArray();
+            }
+
+            @Override
+            protected void discard() {
+            }
+        };
+    }
+
+    @Override
+    public OutputStream openAppend() {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                byte[] old = (data == null) ? new byte[0] : data;
+                byte[] appended = Arrays.copyOf(old, old.length + count);
+                System.arraycopy(buf, 0, appended, old.length, count);
+                data = appended;
+            }
+        };
+    }
+
+    // Quita los últimos `bytes` bytes (una escritura cortada a medias)
+    void truncate(int bytes) {
+        data = Arrays.copyOf(data, data.length - bytes);
+    }
+
+    // Cambia un byte (el archivo se ha modificado a mano o se ha dañado)
+    void flip(int index) {
+        data[index] ^= 0x5a;
+    }
+}
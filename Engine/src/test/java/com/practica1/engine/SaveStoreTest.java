@@ -0,0 +1,192 @@
+package com.practica1.engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+public class SaveStoreTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(new byte[32], "HmacSHA256");
+    private static final SecretKey OTHER_KEY = new SecretKeySpec(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, "HmacSHA256");
+
+    // Cabecera (4) + generación (8) + número de secciones (1) + id y longitud de la primera sección (2)
+    private static final int FIRST_SECTION_DATA = 15;
+
+    private final JobSystem jobs = new JobSystem();
+    private final MemoryFile file = new MemoryFile();
+    private final MemoryFile backup = new MemoryFile();
+    private final MemoryFile journal = new MemoryFile();
+
+    @After
+    public void shutdown() {
+        jobs.shutdown();
+    }
+
+    private SaveStore store() {
+        return new SaveStore(file, backup, journal, jobs, KEY);
+    }
+
+    private static Map<Integer, byte[]> sections(String first, String second) {
+        Map<Integer, byte[]> sections = new LinkedHashMap<>();
+        sections.put(1, first.getBytes(StandardCharsets.UTF_8));
+        sections.put(2, second.getBytes(StandardCharsets.UTF_8));
+        return sections;
+    }
+
+    private static String text(byte[] data) {
+        return (data == null) ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void missing() throws Exception {
+        SaveStore store = store();
+        assertEquals(SaveStore.Status.MISSING, store.check());
+        SaveStore.Snapshot snapshot = store.load();
+        assertEquals(SaveStore.Status.MISSING, snapshot.getStatus());
+        assertTrue(snapshot.getSectionIds().isEmpty());
+    }
+
+    @Test
+    public void validRoundTrip() throws Exception {
+        assertTrue(store().write(sections("uno", "dos")));
+
+        SaveStore.Snapshot snapshot = store().load();
+        assertEquals(SaveStore.Status.VALID, snapshot.getStatus());
+        assertEquals("uno", text(snapshot.getSection(1)));
+        assertEquals("dos", text(snapshot.getSection(2)));
+        assertTrue(snapshot.getRecovered().isEmpty());
+    }
+
+    @Test
+    public void tamperedSectionIsRecoveredFromBackup() throws Exception {
+        SaveStore store = store();
+        store.write(sections("uno", "dos"));
+        store.write(sections("UNO", "DOS")); // la primera foto pasa a la copia
+        file.flip(FIRST_SECTION_DATA);
+
+        SaveStore.Snapshot snapshot = store().load();
+        assertEquals(SaveStore.Status.RECOVERED, snapshot.getStatus());
+        assertEquals("uno", text(snapshot.getSection(1))); // de la copia
+        assertEquals("DOS", text(snapshot.getSection(2))); // la del archivo sigue valiendo
+        assertEquals(Collections.singleton(1), snapshot.getRecovered());
+    }
+
+    @Test
+    public void tamperedSectionWithoutBackupIsLost() throws Exception {
+        store().write(sections("uno", "dos"));
+        file.flip(FIRST_SECTION_DATA);
+
+        SaveStore.Snapshot snapshot = store().load();
+        assertEquals(SaveStore.Status.RECOVERED, snapshot.getStatus());
+        assertNull(snapshot.getSection(1));
+        assertEquals("dos", text(snapshot.getSection(2)));
+    }
+
+    @Test
+    public void truncatedFileKeepsTheCompleteSections() throws Exception {
+        store().write(sections("uno", "dos"));
+        file.truncate(5); // se corta la etiqueta de la segunda sección
+
+        SaveStore.Snapshot snapshot = store().load();
+        assertEquals(SaveStore.Status.RECOVERED, snapshot.getStatus());
+        assertEquals("uno", text(snapshot.getSection(1)));
+        assertNull(snapshot.getSection(2));
+    }
+
+    @Test
+    public void truncatedHeaderIsCorrupted() {
+        store().write(sections("uno", "dos"));
+        file.data = Arrays.copyOf(file.data, 6);
+        assertEquals(SaveStore.Status.CORRUPTED, store().check());
+    }
+
+    @Test
+    public void everySectionTamperedIsCorrupted() throws Exception {
+        store().write(sections("uno", "dos"));
+        file.flip(FIRST_SECTION_DATA);
+        file.flip(file.data.length - 1);
+
+        assertEquals(SaveStore.Status.CORRUPTED, store().check());
+        try {
+            store().load();
+            fail("Se esperaba IntegrityException");
+        } catch (IntegrityException expected) {
+        }
+    }
+
+    @Test
+    public void otherKeyIsCorrupted() {
+        store().write(sections("uno", "dos"));
+        assertEquals(SaveStore.Status.CORRUPTED, new SaveStore(file, jobs, OTHER_KEY).check());
+    }
+
+    @Test
+    public void oldVersionsAreRejected() {
+        store().write(sections("uno", "dos"));
+        file.data[3] = 1; // versión 1 (SHA-256 sin clave)
+        assertEquals(SaveStore.Status.CORRUPTED, store().check());
+    }
+
+    @Test
+    public void legacyJsonIsReturnedWhole() throws Exception {
+        file.setContent("{\"nCoins\":3}");
+        SaveStore.Snapshot snapshot = store().load();
+        assertEquals(SaveStore.Status.LEGACY, snapshot.getStatus());
+        assertEquals("{\"nCoins\":3}", text(snapshot.getPayload()));
+    }
+
+    @Test
+    public void journalIsReplayedOverItsSnapshot() throws Exception {
+        SaveStore store = store();
+        store.save(() -> sections("uno", "dos"));
+        store.append(new byte[]{1, 2});
+        store.append(new byte[]{3});
+        assertTrue(store.flush(5000));
+
+        SaveStore reloaded = store();
+        assertEquals(SaveStore.Status.VALID, reloaded.load().getStatus());
+        List<byte[]> records = reloaded.loadJournal();
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[]{1, 2}, records.get(0));
+        assertArrayEquals(new byte[]{3}, records.get(1));
+    }
+
+    @Test
+    public void journalIsDroppedWhenASectionComesFromTheBackup() throws Exception {
+        SaveStore store = store();
+        store.save(() -> sections("uno", "dos"));
+        assertTrue(store.flush(5000));
+        store.save(() -> sections("UNO", "DOS"));
+        store.append(new byte[]{1, 2});
+        assertTrue(store.flush(5000));
+        file.flip(FIRST_SECTION_DATA);
+
+        SaveStore reloaded = store();
+        assertEquals(SaveStore.Status.RECOVERED, reloaded.load().getStatus());
+        assertTrue(reloaded.loadJournal().isEmpty());
+    }
+
+    @Test
+    public void journalIsDroppedWhenASectionIsLost() throws Exception {
+        SaveStore store = new SaveStore(file, null, journal, jobs, KEY);
+        store.save(() -> sections("uno", "dos"));
+        store.append(new byte[]{1, 2});
+        assertTrue(store.flush(5000));
+        file.flip(FIRST_SECTION_DATA);
+
+        SaveStore reloaded = new SaveStore(file, null, journal, jobs, KEY);
+        assertEquals(SaveStore.Status.RECOVERED, reloaded.load().getStatus());
+        assertTrue(reloaded.loadJournal().isEmpty());
+    }
+}
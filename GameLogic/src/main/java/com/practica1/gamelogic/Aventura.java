@@ -9,17 +9,9 @@ import com.practica1.engine.State;
 import com.practica1.engine.TouchEvent;
 import com.practica1.engine.Image;
 import com.practica1.engine.Mobile;
-import com.google.gson.Gson;
 
-import java.io.FileNotFoundException;
 import java.util.List;
 
-// Struct de estilo de mundos
-class StyleData {
-    String colorUnlocked; // color para niveles desbloqueados
-    String colorLocked; // color para niveles bloqueados
-}
-
 public class Aventura implements State {
     // Referencias
     private SceneManager sceneManager; // referencia a SceneManager
@@ -62,6 +54,7 @@ public class Aventura implements State {
     private float timeSinceSceneLoaded = 0f;
     private final float DELAY_TIME = 0.2f;  // delay en segundos
     private boolean canSelectLevel = false;
+    private boolean leavingScene = false; // Ya se ha pedido la siguiente escena y se esta cargando
 
     public Aventura(Graphics graphics, Audio audio, Mobile mobile, ColorEnum backGroundColor) {
         // asignacion de variables
@@ -71,8 +64,8 @@ public class Aventura implements State {
         this.mobile = mobile;
         this.selectedBackgroundColor = backGroundColor;
         font = graphics.newFont("fff.ttf", 30, true, true);
-        closeImage = graphics.newImage("close.png");
-        lockImage = graphics.newImage("lock.png");
+        closeImage = graphics.newImage("close.png", 0.15f);
+        lockImage = graphics.newImage("lock.png", 0.02f);
         currentLevel = sceneManager.getLevel();
         logicWidth = SceneManager.getInstance().getLogicWidth();
         logicHeight = SceneManager.getInstance().getLogicHeight();
@@ -81,11 +74,13 @@ public class Aventura implements State {
         rows = sceneManager.WORLDSIZE[sceneManager.NMUNDOS - 1] / cols;
         if(sceneManager.WORLDSIZE[sceneManager.NMUNDOS - 1] % cols > 0) rows++;
 
-        // carga de estilos
+        // estilos de cada mundo, ya leidos en el indice de niveles
+        LevelIndex index = sceneManager.getLevelIndex();
         colorLocked = new Color[sceneManager.NMUNDOS];
         colorUnlocked = new Color[sceneManager.NMUNDOS];
         for(int i = 0; i < sceneManager.NMUNDOS; i++){
-            loadStyle(i + 1);
+            colorUnlocked[i] = convertHexToColor(index.getWorld(i).getColorUnlocked());
+            colorLocked[i] = convertHexToColor(index.getWorld(i).getColorLocked());
         }
     }
 
@@ -123,11 +118,12 @@ public class Aventura implements State {
 
     @Override
     public void handleInput(List<TouchEvent> events) {
-        if (!canSelectLevel) return; // no hace nada si no ha pasado un breve periodo de tiempo
+        if (!canSelectLevel || leavingScene) return; // no hace nada si no ha pasado un breve periodo de tiempo o ya se sale
         for (TouchEvent event : events) {
             if (event.type == TouchEvent.TouchEventType.TOUCH_DOWN) {
                 if (isTouchingClose(event.x, event.y)) { // volver al menú
-                    sceneManager.setCurrentScene(new IntroScene(sceneManager.getEngine(), this.mobile, this.selectedBackgroundColor));
+                    leavingScene = sceneManager.loadSceneAsync(() -> new IntroScene(sceneManager.getEngine(), this.mobile, this.selectedBackgroundColor), () -> leavingScene = false);
+                    return;
                 }
                 initialTouchY = event.y; // se guarda para el scroll
                 int touchedLevel = getTouchedLevel(event.x, event.y); // nivel tocado
@@ -140,7 +136,8 @@ public class Aventura implements State {
                     sceneManager.isFirstLevel = false; // deja de ser el primer nivel
                     sceneManager.setLastLevelPlayed(touchedLevel); // se pasa al manager cual es el ultimo nivel jugado
                     sceneManager.setAdventure(true); // se cambia el modo de juego
-                    sceneManager.setCurrentScene(new Grid(graphics, audio, mobile, selectedBackgroundColor)); // nueva partida
+                    leavingScene = sceneManager.loadSceneAsync(() -> new Grid(graphics, audio, mobile, selectedBackgroundColor), () -> leavingScene = false); // nueva partida; si el nivel esta mal formado se sigue en el selector
+                    return;
                 }
             } else if (event.type == TouchEvent.TouchEventType.TOUCH_DRAGGED) {
                 int delta = event.y - initialTouchY; // distancia entre el primer toque y el actual
@@ -166,28 +163,6 @@ public class Aventura implements State {
                 touchY >= 10 && touchY <= closeButtonBottom;
     }
 
-    // lectura de los archivos style.json para determinar los colores de niveles bloqueados y desbloqueados
-    private void loadStyle(int world) {
-        try {
-            // acceso al archivo
-            File file = sceneManager.getEngine().getAssetsFile("levels/world" + world + "/style.json");
-            String json = file.getContent();
-            if (json == null){
-                this.colorUnlocked[world - 1] = graphics.newColor(255, 200, 200, 200);
-                this.colorLocked[world - 1] = graphics.newColor(255, 100, 100, 100);
-                throw new FileNotFoundException("style.json not found for world: " + world);
-            }
-            Gson gson = new Gson();
-
-            // conversion de variables del archivo a variables locales
-            StyleData styleData = gson.fromJson(json, StyleData.class);
-            this.colorUnlocked[world - 1] = convertHexToColor((int) Long.parseLong(styleData.colorUnlocked.replace("0x", ""), 16));
-            this.colorLocked[world - 1] = convertHexToColor((int) Long.parseLong(styleData.colorLocked.replace("0x", ""), 16));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
     // convierte un numero en hexadecimal a un color
     private Color convertHexToColor(int hex) {
         int alpha = (hex >> 24) & 0xFF;
@@ -258,13 +233,9 @@ public class Aventura implements State {
                 if (touchX >= x && touchX <= x + cellWidth &&
                         touchY >= y && touchY <= y + cellHeight) {
                     // deteccion de mundo seleccionado
-                    int cumulativeLevels = 0;
-                    for (int i = 0; i < sceneManager.WORLDSIZE.length; i++) {
-                        cumulativeLevels += sceneManager.WORLDSIZE[i]; // Sumar el tamaño del mundo actual
-                        if (itemIndex <= cumulativeLevels) {
-                            SceneManager.getInstance().setWorld("world" + (i + 1)); // Asignar el mundo dinámicamente
-                            break; // Una vez encontrado el mundo correspondiente, salir del bucle
-                        }
+                    int world = sceneManager.getLevelIndex().getWorldOfLevel(itemIndex);
+                    if (world >= 0) {
+                        SceneManager.getInstance().setWorld(sceneManager.getLevelIndex().getWorld(world).getName());
                     }
                     return itemIndex;
                 }
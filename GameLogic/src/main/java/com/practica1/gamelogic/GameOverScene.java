@@ -25,6 +25,7 @@ public class GameOverScene implements State {
     // variables fade out
     private float alpha = 255;
     private boolean fadingOut = false;
+    private boolean leavingScene = false; // Ya se ha pedido la siguiente escena y se esta cargando
 
     // color de fondo
     private ColorEnum selectedBackgroundColor;
@@ -118,10 +119,11 @@ public class GameOverScene implements State {
 
     @Override
     public void handleInput(List<TouchEvent> events) {
+        if (leavingScene) return; // la siguiente escena ya se esta cargando
         for (TouchEvent event : events) {
             if (event.type == TouchEvent.TouchEventType.TOUCH_DOWN) {
                 if (isTouchOnMenu(event.x, event.y)) { // vuelta al menu
-                    sceneManager.setCurrentScene(new IntroScene(SceneManager.getInstance().getEngine(), mobile, this.selectedBackgroundColor));
+                    leavingScene = sceneManager.loadSceneAsync(() -> new IntroScene(SceneManager.getInstance().getEngine(), mobile, this.selectedBackgroundColor), () -> leavingScene = false);
                 }
                 else if(isTouchOnRetry(event.x, event.y)){ // reiniciar nivel
                     retryLevel();
@@ -132,7 +134,7 @@ public class GameOverScene implements State {
 
     // se crea una escena grid con el mismo nivel que habia
     private void retryLevel() {
-        SceneManager.getInstance().setCurrentScene(new Grid(graphics, audio, mobile, this.selectedBackgroundColor));
+        leavingScene = sceneManager.loadSceneAsync(() -> new Grid(graphics, audio, mobile, this.selectedBackgroundColor), () -> leavingScene = false);
     }
 
     // devuelve si se ha pulsado en el boton retry
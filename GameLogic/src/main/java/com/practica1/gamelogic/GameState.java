@@ -0,0 +1,18 @@
+package com.practica1.gamelogic;
+
+import java.util.List;
+
+// Clase que representa el estado del juego para guardar y cargar progreso
+class GameState {
+    int nCoins; // Número de monedas del jugador
+    int currentLevel; // Nivel actual
+    int lastLevel; // Último nivel jugado
+    String backgroundColor; // Color de fondo actual
+    boolean apple, lemon, berry, pear, gray; // Estados de desbloqueo de colores
+    boolean s_apple, s_lemon, s_berry, s_pear, s_gray; // Estados de selección de colores
+    List<Integer> bubblesToLaunch; // Lista de burbujas pendientes por lanzar
+    int[][] initialBoard; // Estado inicial del tablero
+    int score; // Puntuación de la partida a medias
+    boolean[] purchasedColors; // Colores comprados
+    transient byte[] boardFields; // Partida a medias sin decodificar (GameStateCodec.setBoardFields)
+}
@@ -0,0 +1,349 @@
+package com.practica1.gamelogic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Formato binario del guardado (GameState), sin reflexion. Un guardado normal ocupa menos de 200 bytes
+(el tablero de 21x10 va empaquetado a 4 bits por celda y sin las filas vacias del final).
+
+Campos con etiqueta como en protobuf: un byte (campo << 3 | tipo) y el valor, que es un varint (tipo 0)
+o una longitud en varint seguida de esos bytes (tipo 2). Al leer se saltan los campos que no se conocen,
+asi que se pueden añadir campos nuevos sin cambiar de formato y un guardado antiguo se sigue leyendo
+(los campos que falten se quedan con su valor por defecto). Si cambia el significado de un campo
+existente se usa un numero de campo nuevo.
+
+El guardado se escribe por secciones (encodeSections), cada una con sus campos y sin cabecera, para que
+SaveStore les ponga su propia etiqueta y una seccion dañada (p. ej. el tablero) se pueda recuperar de la
+copia de seguridad sin tocar las demas. Cada campo va siempre en la misma seccion. La seccion del tablero
+no se decodifica al cargar: se guarda tal cual en GameState.boardFields y se decodifica con decodeBoard
+solo si se retoma el nivel (si no se toca, se vuelve a escribir sin decodificar).
+
+Los guardados anteriores en JSON los lee JsonCodec.readGameState. */
+final class GameStateCodec {
+
+    private static final int VARINT = 0, BYTES = 2;
+
+    // Campos (no reutilizar numeros de campos retirados)
+    private static final int F_COINS = 1;
+    private static final int F_LEVEL = 2;
+    private static final int F_LAST_LEVEL = 3;
+    private static final int F_BACKGROUND = 4; // ordinal de ColorEnum
+    private static final int F_CUSTOMIZATION = 5; // bits: desbloqueados 0-4, seleccionados 5-9
+    private static final int F_PURCHASED = 6; // bit i = ColorEnum i comprado
+    private static final int F_BUBBLES = 7; // numero de burbujas + ids a 4 bits
+    private static final int F_BOARD = 8; // filas, columnas, filas guardadas + celdas a 4 bits
+    private static final int F_SCORE = 9; // puntuacion de la partida a medias
+
+    // Secciones del guardado (no reutilizar ids retirados)
+    static final int SECTION_PROGRESS = 1; // nivel alcanzado
+    static final int SECTION_WALLET = 2; // monedas y colores comprados
+    static final int SECTION_COSMETICS = 3; // skins y fondo
+    static final int SECTION_BOARD = 4; // partida a medias
+
+    private GameStateCodec() {
+    }
+
+    // -- ESCRITURA --
+
+    static Map<Integer, byte[]> encodeSections(GameState state) {
+        Map<Integer, byte[]> sections = new LinkedHashMap<>();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+        writeVarintField(out, F_LEVEL, state.currentLevel);
+        sections.put(SECTION_PROGRESS, out.toByteArray());
+
+        out = new ByteArrayOutputStream(8);
+        writeVarintField(out, F_COINS, state.nCoins);
+        if (state.purchasedColors != null) {
+            writeVarintField(out, F_PURCHASED, bits(state.purchasedColors));
+        }
+        sections.put(SECTION_WALLET, out.toByteArray());
+
+        out = new ByteArrayOutputStream(8);
+        if (state.backgroundColor != null) {
+            writeVarintField(out, F_BACKGROUND, ColorEnum.valueOf(state.backgroundColor).ordinal());
+        }
+        int flags = bits(state.apple, state.lemon, state.berry, state.pear, state.gray)
+                | bits(state.s_apple, state.s_lemon, state.s_berry, state.s_pear, state.s_gray) << 5;
+        writeVarintField(out, F_CUSTOMIZATION, flags);
+        sections.put(SECTION_COSMETICS, out.toByteArray());
+
+        sections.put(SECTION_BOARD, (state.boardFields != null) ? state.boardFields
+                : encodeBoard(state.lastLevel, state.bubblesToLaunch, state.initialBoard, state.score));
+        return sections;
+    }
+
+    // Partida a medias (ultimo nivel, burbujas por lanzar, tablero y puntuacion) sin cabecera, para su
+    // seccion y para el diario
+    static byte[] encodeBoard(int lastLevel, List<Integer> bubbles, int[][] board, int score) {
+        GameState state = new GameState();
+        state.lastLevel = lastLevel;
+        state.bubblesToLaunch = bubbles;
+        state.initialBoard = board;
+        state.score = score;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        writeVarintField(out, F_LAST_LEVEL, lastLevel);
+        writeBoardFields(out, state);
+        return out.toByteArray();
+    }
+
+    // El siguiente color no se guarda: es el segundo de las burbujas por lanzar
+    private static void writeBoardFields(ByteArrayOutputStream out, GameState state) {
+        if (state.score != 0) writeVarintField(out, F_SCORE, state.score);
+        if (state.bubblesToLaunch != null) {
+            List<Integer> bubbles = state.bubblesToLaunch;
+            ByteArrayOutputStream field = new ByteArrayOutputStream(1 + bubbles.size() / 2 + 1);
+            writeVarint(field, bubbles.size());
+            int[] ids = new int[bubbles.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = bubbles.get(i);
+            writeNibbles(field, ids, ids.length);
+            writeBytesField(out, F_BUBBLES, field);
+        }
+
+        if (state.initialBoard != null) {
+            int[][] board = state.initialBoard;
+            int rows = board.length;
+            int columns = 0;
+            for (int[] row : board) columns = Math.max(columns, row.length);
+            // Las filas vacias del final no se guardan
+            int usedRows = rows;
+            while (usedRows > 0 && isEmpty(board[usedRows - 1])) usedRows--;
+
+            int[] cells = new int[usedRows * columns];
+            for (int r = 0; r < usedRows; r++) {
+                System.arraycopy(board[r], 0, cells, r * columns, board[r].length);
+            }
+            ByteArrayOutputStream field = new ByteArrayOutputStream(3 + cells.length / 2 + 1);
+            writeVarint(field, rows);
+            writeVarint(field, columns);
+            writeVarint(field, usedRows);
+            writeNibbles(field, cells, cells.length);
+            writeBytesField(out, F_BOARD, field);
+        }
+    }
+
+    private static void writeVarintField(ByteArrayOutputStream out, int field, int value) {
+        out.write(field << 3 | VARINT);
+        writeVarint(out, value);
+    }
+
+    private static void writeBytesField(ByteArrayOutputStream out, int field, ByteArrayOutputStream value) {
+        out.write(field << 3 | BYTES);
+        writeVarint(out, value.size());
+        byte[] bytes = value.toByteArray();
+        out.write(bytes, 0, bytes.length); // writeBytes(byte[]) no existe en Android hasta la API 33
+    }
+
+    // Enteros sin signo en grupos de 7 bits, el bit alto indica que sigue otro byte
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        if (value < 0) throw new IllegalArgumentException("Valor negativo en el guardado: " + value);
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // Dos valores de 0 a 15 por byte, el primero en los 4 bits bajos
+    private static void writeNibbles(ByteArrayOutputStream out, int[] values, int count) {
+        for (int i = 0; i < count; i += 2) {
+            int low = nibble(values[i]);
+            int high = (i + 1 < count) ? nibble(values[i + 1]) : 0;
+            out.write(low | high << 4);
+        }
+    }
+
+    private static int nibble(int value) {
+        if (value < 0 || value > 15) throw new IllegalArgumentException("Id de burbuja fuera de rango: " + value);
+        return value;
+    }
+
+    private static int bits(boolean... values) {
+        int mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    private static boolean isEmpty(int[] row) {
+        for (int cell : row) {
+            if (cell != 0) return false;
+        }
+        return true;
+    }
+
+    // -- LECTURA --
+
+    // Lee los campos de una seccion sobre `state` (la del tablero se queda sin decodificar, ver setBoardFields)
+    static void decodeSection(int section, byte[] data, GameState state) throws IOException {
+        if (section == SECTION_BOARD) setBoardFields(state, data);
+        else decodeFields(new Reader(data, 0, data.length), state);
+    }
+
+    /* Partida a medias sin decodificar (seccion del tablero o registro del diario). Solo se lee el ultimo
+    nivel y si hay burbujas por lanzar, saltando el tablero; sin burbujas no hay nada que retomar. */
+    static void setBoardFields(GameState state, byte[] fields) throws IOException {
+        state.bubblesToLaunch = null;
+        state.initialBoard = null;
+        state.score = 0;
+        state.lastLevel = 0;
+        state.boardFields = null;
+
+        Reader in = new Reader(fields, 0, fields.length);
+        int lastLevel = 0;
+        boolean resumable = false;
+        while (in.hasMore()) {
+            int tag = in.readVarint();
+            if ((tag & 7) == VARINT) {
+                int value = in.readVarint();
+                if (tag >>> 3 == F_LAST_LEVEL) lastLevel = value;
+            } else if ((tag & 7) == BYTES) {
+                in.slice(in.readVarint());
+                if (tag >>> 3 == F_BUBBLES) resumable = true;
+            } else {
+                throw new IOException("Tipo de campo desconocido " + (tag & 7) + " en el campo " + (tag >>> 3));
+            }
+        }
+        if (resumable) {
+            state.lastLevel = lastLevel;
+            state.boardFields = fields;
+        }
+    }
+
+    // Decodifica la partida a medias guardada con setBoardFields
+    static void decodeBoard(byte[] fields, GameState state) throws IOException {
+        decodeFields(new Reader(fields, 0, fields.length), state);
+    }
+
+    // Lee campos sobre `state`; los que no aparecen no se tocan (tambien para los registros del diario)
+    static void decodeFields(Reader in, GameState state) throws IOException {
+        while (in.hasMore()) {
+            int tag = in.readVarint();
+            int field = tag >>> 3;
+            int type = tag & 7;
+            if (type == VARINT) {
+                int value = in.readVarint();
+                switch (field) {
+                    case F_COINS -> state.nCoins = value;
+                    case F_LEVEL -> state.currentLevel = value;
+                    case F_LAST_LEVEL -> state.lastLevel = value;
+                    case F_BACKGROUND -> {
+                        ColorEnum[] colors = ColorEnum.values();
+                        if (value < colors.length) state.backgroundColor = colors[value].name();
+                    }
+                    case F_CUSTOMIZATION -> readCustomization(state, value);
+                    case F_SCORE -> state.score = value;
+                    case F_PURCHASED -> {
+                        state.purchasedColors = new boolean[ColorEnum.values().length];
+                        for (int i = 0; i < state.purchasedColors.length; i++) {
+                            state.purchasedColors[i] = (value & 1 << i) != 0;
+                        }
+                    }
+                    default -> { } // campo de una version posterior
+                }
+            } else if (type == BYTES) {
+                int length = in.readVarint();
+                Reader value = in.slice(length);
+                switch (field) {
+                    case F_BUBBLES -> state.bubblesToLaunch = readBubbles(value);
+                    case F_BOARD -> state.initialBoard = readBoard(value);
+                    default -> { } // campo de una version posterior
+                }
+            } else {
+                throw new IOException("Tipo de campo desconocido " + type + " en el campo " + field);
+            }
+        }
+    }
+
+    private static void readCustomization(GameState state, int flags) {
+        state.apple = (flags & 1) != 0;
+        state.lemon = (flags & 1 << 1) != 0;
+        state.berry = (flags & 1 << 2) != 0;
+        state.pear = (flags & 1 << 3) != 0;
+        state.gray = (flags & 1 << 4) != 0;
+        state.s_apple = (flags & 1 << 5) != 0;
+        state.s_lemon = (flags & 1 << 6) != 0;
+        state.s_berry = (flags & 1 << 7) != 0;
+        state.s_pear = (flags & 1 << 8) != 0;
+        state.s_gray = (flags & 1 << 9) != 0;
+    }
+
+    private static List<Integer> readBubbles(Reader in) throws IOException {
+        int count = in.readVarint();
+        int[] ids = in.readNibbles(count);
+        List<Integer> bubbles = new ArrayList<>(count);
+        for (int id : ids) bubbles.add(id);
+        return bubbles;
+    }
+
+    private static int[][] readBoard(Reader in) throws IOException {
+        int rows = in.readVarint();
+        int columns = in.readVarint();
+        int usedRows = in.readVarint();
+        if (usedRows > rows) throw new IOException("Tablero con mas filas guardadas que filas: " + usedRows + "/" + rows);
+        int[] cells = in.readNibbles(usedRows * columns);
+        int[][] board = new int[rows][columns];
+        for (int r = 0; r < usedRows; r++) {
+            System.arraycopy(cells, r * columns, board[r], 0, columns);
+        }
+        return board;
+    }
+
+    // Lectura de un trozo del buffer sin copiarlo
+    static final class Reader {
+        private final byte[] data;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] data, int pos, int end) {
+            this.data = data;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return pos < end;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= end) throw new IOException("Guardado truncado");
+            return data[pos++] & 0xff;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) throw new IOException("Varint fuera de rango");
+                    return value;
+                }
+            }
+            throw new IOException("Varint demasiado largo");
+        }
+
+        Reader slice(int length) throws IOException {
+            if (length < 0 || length > end - pos) throw new IOException("Guardado truncado");
+            Reader slice = new Reader(data, pos, pos + length);
+            pos += length;
+            return slice;
+        }
+
+        int[] readNibbles(int count) throws IOException {
+            if (count < 0 || (count + 1) / 2 > end - pos) throw new IOException("Guardado truncado");
+            int[] values = new int[count];
+            for (int i = 0; i < count; i += 2) {
+                int b = readByte();
+                values[i] = b & 0x0f;
+                if (i + 1 < count) values[i + 1] = b >>> 4;
+            }
+            return values;
+        }
+    }
+}
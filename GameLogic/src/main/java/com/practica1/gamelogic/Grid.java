@@ -9,16 +9,12 @@ import com.practica1.engine.Mobile;
 import com.practica1.engine.Sound;
 import com.practica1.engine.State;
 import com.practica1.engine.TouchEvent;
-import com.google.gson.Gson;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import com.practica1.engine.File;
 import java.util.Random;
-
-class LevelData {
-    List<Integer> bubblesToLaunch;
-    int[][] initialBoard;
-}
+import java.util.function.Supplier;
 
 public class Grid implements State {
 
@@ -34,8 +30,8 @@ public class Grid implements State {
     private static final int TOP_MARGIN = 75;  // Anchura de los bordes
     private static final int TOP_BOUNDARY = TOP_MARGIN + BUBBLE_RADIUS;
     private static final int ROWS = 5; // COLUMNAS RELLENAS
-    private static final int TOTALROWS = 21; //COLUMNAS TOTALES
-    private static final int COLUMNS = 10;
+    static final int TOTALROWS = 21; //COLUMNAS TOTALES
+    static final int COLUMNS = 10;
     private static final int PLAYER_INIT_POS = -97;
     private static final float PLAYER_LIFE_TIME = 5.0f;
     private static final int MAX_ALLOWED_ROW = 18; // Define la fila máxima permitida antes de activar la derrota
@@ -76,6 +72,7 @@ public class Grid implements State {
     private int imageRightY;   // Coordenadas para la imagen en la esquina superior derecha
     private Image gridImage;   // Imagen en la esquina superior izquierda
     private Image gridImage2;  // Imagen en la esquina superior derecha
+    private Image hexEmptyImage, hexFullImage; // Iconos del boton de hexagonos (desactivado / activado)
     private ColorEnum backgroundColor;
 
     // Variable para indicar si una colisión ha ocurrido y el sonido ha sido reproducido
@@ -96,6 +93,7 @@ public class Grid implements State {
     // Variables para iniciar nivel
     private String le = String.valueOf(SceneManager.getInstance().getLastLevelPlayed()); // nivel a jugar
     private boolean adventure; // modo de juego
+    private boolean leavingScene = false; // se ha pedido la siguiente escena y se esta cargando
 
     // CONSTRUCTORA
     public Grid(Graphics graphics, Audio audio, Mobile mobile, ColorEnum backgroundColor) {
@@ -108,19 +106,23 @@ public class Grid implements State {
         logicHeight = sceneManager.getLogicHeight();
 
         // carga de recursos
-        this.gridImage = graphics.newImage("close.png");    // Imagen para la esquina superior izquierda
-        this.gridImage2 = graphics.newImage("hex_empty.png");   // Imagen para la esquina superior derecha
+        this.gridImage = graphics.newImage("close.png", 0.1f);    // Imagen para la esquina superior izquierda
+        this.hexEmptyImage = graphics.newImage("hex_empty.png", 0.1f);
+        this.hexFullImage = graphics.loadImageAsync("hex_full.png", 0.1f); // solo se ve al activar los hexagonos
+        this.gridImage2 = hexEmptyImage;   // Imagen para la esquina superior derecha
         matchSound = audio.newSound("correct.wav");
-        winSound = audio.newSound("win1.wav");
-        redBubbleImage = graphics.newImage("apple.png");
-        yellowBubbleImage = graphics.newImage("lemon.png");
-        greenBubbleImage = graphics.newImage("pear.png");
-        blueBubbleImage = graphics.newImage("blueberry.png");
-        greyBubbleImage = graphics.newImage("grey.png");
+        winSound = audio.loadSoundAsync("win1.wav"); // solo suena al final de la partida
+        // las frutas se decodifican al tamaño de una burbuja (hasta 1.1 veces el diametro de ancho)
+        int fruitWidth = (int) Math.ceil(2.2f * BUBBLE_RADIUS), fruitHeight = 2 * BUBBLE_RADIUS;
+        redBubbleImage = graphics.newImage("apple.png", fruitWidth, fruitHeight);
+        yellowBubbleImage = graphics.newImage("lemon.png", fruitWidth, fruitHeight);
+        greenBubbleImage = graphics.newImage("pear.png", fruitWidth, fruitHeight);
+        blueBubbleImage = graphics.newImage("blueberry.png", fruitWidth, fruitHeight);
+        greyBubbleImage = graphics.newImage("grey.png", fruitWidth, fruitHeight);
         scoreFont = graphics.newFont("blow.ttf", 40, false, false);
         countdownFont = graphics.newFont("blow.ttf", 80, true, true);
         collisionSound = audio.newSound("ballAttach.wav"); // Sonido de colisión entre burbujas
-        gameOverSound = audio.newSound("gameOver.wav");
+        gameOverSound = audio.loadSoundAsync("gameOver.wav"); // solo suena al final de la partida
 
         // posiciones de imagenes
         this.imageLeftX = 20;
@@ -138,10 +140,13 @@ public class Grid implements State {
         adventure = sceneManager.getAdventure();
         if (adventure){
             // nivel en curso guardado
-            if (sceneManager.levelOnCourse) loadLevelOnCourse(BUBBLE_RADIUS, TOP_MARGIN + BOUND_WIDTH);
+            if (sceneManager.levelOnCourse && sceneManager.getCurrentGrid() != null) loadLevelOnCourse(BUBBLE_RADIUS, TOP_MARGIN + BOUND_WIDTH);
             // nivel por defecto
-            else loadLevelFromJson("levels/" + sceneManager.getWorld() + "/level" + le + ".json",
-                    BUBBLE_RADIUS, TOP_MARGIN + BOUND_WIDTH);
+            else {
+                String levelPath = sceneManager.getLevelIndex().getLevelPath(sceneManager.getLastLevelPlayed());
+                if (levelPath == null) levelPath = "levels/" + sceneManager.getWorld() + "/level" + le + ".json";
+                loadLevelFromJson(levelPath, BUBBLE_RADIUS, TOP_MARGIN + BOUND_WIDTH);
+            }
         }
         // nivel aleatorio (partida rapida)
         else generateBubbleRows(ROWS, COLUMNS, BUBBLE_RADIUS, TOP_MARGIN + BOUND_WIDTH);
@@ -168,18 +173,16 @@ public class Grid implements State {
             }
 
             // Verificar si la animación ha terminado
-            if (victoryAnimationTime >= 3) {
-                victoryAnimationActive = false; // Desactiva la animación
-                if(adventure) {
-                    sceneManager.setCurrentScene(new VictoryScene(graphics, audio, score, mobile, this.backgroundColor, true));
-                }
-                else {
-                    sceneManager.setCurrentScene(new VictoryScene(graphics, audio, score, mobile, this.backgroundColor, false));
-                }
+            if (victoryAnimationTime >= 3 && !leavingScene) {
+                // La animación sigue mientras se carga la escena de victoria
+                final int finalScore = score;
+                leaveTo(() -> new VictoryScene(graphics, audio, finalScore, mobile, this.backgroundColor, adventure));
             }
             return; // Evita otras actualizaciones mientras la animación está activa
         }
 
+        if (leavingScene) return; // la partida ha terminado: solo sigue la animacion mientras carga la siguiente escena
+
         // fade in
         if (fadingIn) {
             alpha -= 200 * deltaTime;
@@ -284,6 +287,7 @@ public class Grid implements State {
 
     @Override
     public void handleInput(List<TouchEvent> events) {
+        if (leavingScene) return; // la siguiente escena ya se esta cargando
         // Si la burbuja del jugador está en movimiento, no procesar input
         if (playerBubble != null && playerBubble.isMoving()) return;
 
@@ -296,7 +300,8 @@ public class Grid implements State {
                 if (isTouchOnHexEmpty(event.x, event.y)) toggleHexagonDisplay();
                 // Verifica si se ha tocado el botón para volver al menu
                 if (isTouchOnClose(event.x, event.y)) {
-                    sceneManager.setCurrentScene(new IntroScene(sceneManager.getEngine(), this.mobile, backgroundColor));
+                    leaveTo(() -> new IntroScene(sceneManager.getEngine(), this.mobile, backgroundColor));
+                    return;
                 }
             }
             if (elapsedTimeSinceStart >= INITIAL_LAUNCH_DELAY && insideLimits(event.x, event.y)) {
@@ -334,8 +339,7 @@ public class Grid implements State {
         }
 
         // cambiar la imagen
-        if (hexagons) gridImage2 = graphics.newImage("hex_full.png");
-        else gridImage2 = graphics.newImage("hex_empty.png");
+        gridImage2 = hexagons ? hexFullImage : hexEmptyImage;
     }
 
     // Renderiza la burbuja siguiente del jugador
@@ -388,14 +392,18 @@ public class Grid implements State {
     // metodo para cargar un nivel desde un json
     public void loadLevelFromJson(String jsonPath, int radius, int startY) {
         // acceso al archivo
-        Gson gson = new Gson();
         File file = sceneManager.getEngine().getAssetsFile(jsonPath);
         String json = file.getContent();
 
 
         if (json != null) {
-                // Leer el JSON y mapearlo a un objeto LevelData
-                LevelData levelData = gson.fromJson(json, LevelData.class);
+            // Leer el JSON directamente a arrays; un nivel mal formado no se empieza (se queda la escena actual)
+            LevelData levelData;
+            try {
+                levelData = JsonCodec.readLevel(json, jsonPath);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Nivel no valido: " + e.getMessage(), e);
+            }
 
             // Configurar el tablero inicial basado en `initialBoard`
             for (int row = 0; row < levelData.initialBoard.length; row++) {
@@ -433,11 +441,12 @@ public class Grid implements State {
                 bubbleList[row][col] = bubble;
             }
         }
-        // lista de colores playerbubble
+        // lista de colores playerbubble (la primera es la actual y la segunda la siguiente)
         for (int colorId : sceneManager.getCurrentBubblesToLaunch()) {
             ColorEnum color = getColorFromId(colorId);
             bubblesToThrow.add(color);
         }
+        score = sceneManager.getCurrentScore();
     }
 
     // de ID a color
@@ -561,6 +570,15 @@ public class Grid implements State {
         score += points;
     }
 
+    public int getScore() {
+        return score;
+    }
+
+    // Punto de control tras resolver un disparo, para retomar el nivel si se cierra la aplicacion
+    private void saveCheckpoint() {
+        if (adventure) sceneManager.checkpoint(getBubblesToLaunch(), getCurrentGrid(), score);
+    }
+
     // Comprueba las colisiones
     private void checkCollisions() {
         for (int row = 0; row < TOTALROWS; row++) {
@@ -607,6 +625,7 @@ public class Grid implements State {
 
                         // Actualizar burbujas flotantes
                         updateFloatingBubbles();
+                        saveCheckpoint();
                     }
                     return;
                 }
@@ -632,7 +651,9 @@ public class Grid implements State {
             // Actualizar burbujas flotantes
             updateFloatingBubbles();
             playerBubble = null; // Reinicia la burbuja del jugador
+            if (adventure) bubblesToThrow.remove(0); // la burbuja ya esta en el tablero
             spawnNewPlayerBubble();
+            saveCheckpoint();
         }
     }
 
@@ -805,8 +826,18 @@ public class Grid implements State {
     // metodo que cambia a escena de gameOver
     private void gameOver() {
         playerBubble = null;  // Elimina cualquier burbuja controlable
+        if (adventure) sceneManager.clearCheckpoint();
         audio.playSound(gameOverSound, false);
-        sceneManager.setCurrentScene(new GameOverScene(graphics, audio, score, mobile, this.backgroundColor));
+        final int finalScore = score;
+        leaveTo(() -> new GameOverScene(graphics, audio, finalScore, mobile, this.backgroundColor));
+    }
+
+    // pide la siguiente escena en segundo plano; mientras carga esta escena deja de actualizarse.
+    // La partida ya ha terminado, asi que si la escena no se puede construir se vuelve al menu
+    private void leaveTo(Supplier<State> factory) {
+        if (leavingScene) return;
+        leavingScene = sceneManager.loadSceneAsync(factory, () -> leavingScene = sceneManager.loadSceneAsync(
+                () -> new IntroScene(sceneManager.getEngine(), mobile, backgroundColor), () -> leavingScene = false));
     }
 
     // Comprueba la condición de victoria
@@ -823,6 +854,7 @@ public class Grid implements State {
     private void victory() {
         this.playWinSound();
         playerBubble = null; // Elimina cualquier burbuja controlable
+        if (adventure) sceneManager.clearCheckpoint();
         victoryBubbles = new ArrayList<>(); // Inicializa la lista de burbujas
         victoryAnimationActive = true; // Activa la animación de victoria
         victoryAnimationTime = 0; // Resetea el tiempo de la animación
@@ -32,12 +32,14 @@ public class IntroScene implements State {
     private static final int TIENDATEXTX = 175, TIENDATEXTY = 740; // Coordenadas del texto "Tienda"
     private static final int AVENTURATEXTX = 150, AVENTURATEXTY = 560; // Coordenadas del texto "Aventura"
     private static final int PRAPIDATEXTX = 100, PRAPIDATEXTY = 460; // Coordenadas del texto "Juego Rápido"
+    private static final int PERFILTEXTX = 330, PERFILTEXTY = 950; // Coordenadas del texto "Perfil" (abajo a la derecha)
 
     // Variables para gestionar el efecto de transición (fade-in y fade-out)
     private float alpha = 255; // Nivel de opacidad (255 = completamente opaco, 0 = completamente transparente)
     private boolean fadingOut = false; // Indica si se está realizando un fade-out para salir de la escena
     private boolean enterShop = false; // Bandera para determinar si se debe entrar a la tienda
     private ColorEnum backgroundColor; // Color de fondo de la escena
+    private boolean leavingScene = false; // Ya se ha pedido la siguiente escena y se esta cargando
 
     // Dimensiones lógicas del juego
     int logicWidth, logicHeight;
@@ -76,7 +78,12 @@ public class IntroScene implements State {
 
                 // Cambia a la escena correspondiente dependiendo de la acción
                 if (!enterShop) sceneManager.setCurrentScene(grid); // Cambia a la escena de juego
-                else sceneManager.setCurrentScene(new Shop(graphics, this.backgroundColor, this.mobile)); // Cambia a la tienda
+                else if (!leavingScene) { // Cambia a la tienda cuando termine de cargarse
+                    leavingScene = sceneManager.loadSceneAsync(() -> new Shop(graphics, this.backgroundColor, this.mobile), () -> {
+                        leavingScene = false;
+                        enterShop = false; // vuelve a aparecer el menu
+                    });
+                }
             }
         } else {
             alpha -= 100 * deltaTime; // Disminuye la opacidad para el fade-in
@@ -102,6 +109,7 @@ public class IntroScene implements State {
         graphics.drawText("Puzzle", introFont, PUZZLETEXTX, PUZZLETEXTY); // Texto "Puzzle"
         graphics.drawText("Booble", introFont, BOOBLETEXTX, BOOBLETEXTY); // Texto "Booble"
         graphics.drawText("Coins:" + sceneManager.getCoins(), coinsFont, logicWidth / 4 - 100, logicHeight - 50); // Monedas del jugador
+        graphics.drawText("Perfil " + (sceneManager.getProfile() + 1), coinsFont, PERFILTEXTX, PERFILTEXTY); // Perfil actual
 
         // Dibuja el texto en los botones
         graphics.drawText("Aventura", buttonsFont, AVENTURATEXTX, AVENTURATEXTY); // Texto "Aventura"
@@ -115,19 +123,24 @@ public class IntroScene implements State {
 
     @Override
     public void handleInput(List<TouchEvent> events) {
+        if (leavingScene || sceneManager.isSwitchingProfile()) return; // La siguiente escena o el otro perfil se estan cargando
         // Maneja los eventos táctiles (toques en la pantalla)
         for (TouchEvent event : events) {
             if (event.type == TouchEvent.TouchEventType.TOUCH_DOWN) {
                 if (isTouchPRapida(event.x, event.y)) {
                     // Inicia el modo "Juego Rápido"
                     SceneManager.getInstance().setAdventure(false); // Desactiva el modo aventura
-                    sceneManager.setCurrentScene(new Grid(graphics, audio, mobile, backgroundColor)); // Cambia a la escena "Grid"
+                    leavingScene = sceneManager.loadSceneAsync(() -> new Grid(graphics, audio, mobile, backgroundColor), () -> leavingScene = false); // Cambia a la escena "Grid"
                 } else if (isTouchingShopButton(event.x, event.y)) {
                     // Activa la bandera para entrar a la tienda
                     enterShop = true;
                 } else if (isTouchAventura(event.x, event.y)) {
                     // Inicia el modo "Aventura"
-                    SceneManager.getInstance().setCurrentScene(new Aventura(graphics, audio, mobile, backgroundColor)); // Cambia a la escena "Aventura"
+                    leavingScene = sceneManager.loadSceneAsync(() -> new Aventura(graphics, audio, mobile, backgroundColor), () -> leavingScene = false); // Cambia a la escena "Aventura"
+                } else if (isTouchPerfil(event.x, event.y)) {
+                    // Pasa al siguiente perfil de guardado; cuando se ha leído, su progreso, monedas y fondo sustituyen a los actuales
+                    sceneManager.switchProfile((sceneManager.getProfile() + 1) % SceneManager.PROFILES,
+                            () -> backgroundColor = sceneManager.getBackgroundColor());
                 }
             }
         }
@@ -145,6 +158,11 @@ public class IntroScene implements State {
         return touchX >= rectX && touchX <= (rectX + rectWidth) && touchY >= rectY + rectHeight + MARGIN && touchY <= (rectY + rectHeight + MARGIN + rectHeight);
     }
 
+    // Verifica si el toque fue en el texto del perfil
+    private boolean isTouchPerfil(int touchX, int touchY) {
+        return touchX >= PERFILTEXTX && touchX <= logicWidth && touchY >= PERFILTEXTY - 45 && touchY <= logicHeight;
+    }
+
     // Verifica si el toque fue en el botón "Tienda"
     private boolean isTouchingShopButton(int touchX, int touchY) {
         return touchX >= rectX && touchX <= (rectX + rectWidth) && touchY >= rectYTienda && touchY <= (rectYTienda + rectHeight);
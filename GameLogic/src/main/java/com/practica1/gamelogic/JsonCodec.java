@@ -0,0 +1,331 @@
+package com.practica1.gamelogic;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* Lectura de los JSON del juego (niveles, estilos, indice de niveles y guardados antiguos) token a token
+con el JsonReader de Gson, sin reflexion ni objetos intermedios: los tableros y las listas de burbujas se
+leen directamente a arrays de int. Las claves que no se conocen se saltan y un null deja el valor por
+defecto. Como Gson.fromJson, el lector es permisivo (comentarios, literales sin comillas como los 0x de
+style.json), pero los valores se comprueban: un tablero mal formado se rechaza al leerlo en lugar de
+fallar despues en mitad de la partida.
+
+Los errores son IOException con el nombre del archivo y la ruta JSON del valor (p. ej. $.initialBoard[3]). */
+final class JsonCodec {
+
+    private static final int MAX_BUBBLE_ID = 5; // ids de Grid.getColorFromId (0 es una celda vacia)
+
+    private JsonCodec() {
+    }
+
+    // -- NIVELES --
+
+    /* Nivel (levelN.json). El tablero tiene como mucho Grid.TOTALROWS filas que alternan Grid.COLUMNS y
+    Grid.COLUMNS - 1 columnas (las impares van desplazadas media burbuja). */
+    static LevelData readLevel(String json, String name) throws IOException {
+        LevelData level = new LevelData();
+        JsonReader in = open(json);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (skipNull(in)) continue;
+                switch (key) {
+                    case "bubblesToLaunch" -> level.bubblesToLaunch = readIds(in, name, 1);
+                    case "initialBoard" -> level.initialBoard = readBoard(in, name, true);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+        if (level.bubblesToLaunch == null) throw new IOException(name + ": falta bubblesToLaunch");
+        if (level.initialBoard == null) throw new IOException(name + ": falta initialBoard");
+        return level;
+    }
+
+    // -- ESTILOS --
+
+    // Colores de un mundo (style.json); los que falten se quedan como estan
+    static void readStyle(String json, String name, LevelIndex.World world) throws IOException {
+        JsonReader in = open(json);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (skipNull(in)) continue;
+                switch (key) {
+                    case "colorUnlocked" -> world.colorUnlocked = readColor(in, name);
+                    case "colorLocked" -> world.colorLocked = readColor(in, name);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+    }
+
+    // ARGB escrito como 0xAARRGGBB (con o sin comillas) o como numero (el indice generado)
+    private static int readColor(JsonReader in, String name) throws IOException {
+        if (in.peek() == JsonToken.NUMBER) return (int) in.nextLong();
+        String value = in.nextString().trim();
+        try {
+            return (int) Long.parseLong(value.replace("0x", "").replace("0X", ""), 16);
+        } catch (NumberFormatException e) {
+            throw error(in, name, "color no valido \"" + value + "\", se esperaba 0xAARRGGBB");
+        }
+    }
+
+    // -- INDICE DE NIVELES --
+
+    // levels/index.json tal y como lo escribe LevelIndex.write
+    static LevelIndex readIndex(String json, String name) throws IOException {
+        LevelIndex index = new LevelIndex();
+        JsonReader in = open(json);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (skipNull(in)) continue;
+                switch (key) {
+                    case "version" -> index.version = readInt(in, name);
+                    case "worlds" -> {
+                        List<LevelIndex.World> worlds = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) worlds.add(readWorld(in, name));
+                        in.endArray();
+                        index.worlds = worlds.toArray(new LevelIndex.World[0]);
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+        return index;
+    }
+
+    private static LevelIndex.World readWorld(JsonReader in, String name) throws IOException {
+        LevelIndex.World world = new LevelIndex.World();
+        List<LevelIndex.Level> levels = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (skipNull(in)) continue;
+            switch (key) {
+                case "name" -> world.name = in.nextString();
+                case "colorUnlocked" -> world.colorUnlocked = readColor(in, name);
+                case "colorLocked" -> world.colorLocked = readColor(in, name);
+                case "levels" -> {
+                    in.beginArray();
+                    while (in.hasNext()) levels.add(readLevelInfo(in, name));
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        world.levels = levels.toArray(new LevelIndex.Level[0]);
+        return world;
+    }
+
+    private static LevelIndex.Level readLevelInfo(JsonReader in, String name) throws IOException {
+        LevelIndex.Level level = new LevelIndex.Level();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (skipNull(in)) continue;
+            switch (key) {
+                case "number" -> level.number = readInt(in, name);
+                case "path" -> level.path = in.nextString();
+                case "bubbles" -> level.bubbles = readInt(in, name);
+                case "shots" -> level.shots = readInt(in, name);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (level.path == null) throw error(in, name, "nivel " + level.number + " sin path");
+        return level;
+    }
+
+    // -- GUARDADO ANTIGUO --
+
+    /* GameState de los guardados en JSON anteriores al formato binario (GameStateCodec). Al contrario que
+    un nivel, un tablero o una lista de burbujas que no se pueden leer no invalidan el guardado: se pierde
+    solo la partida a medias y se migran las monedas, el nivel alcanzado y las skins. */
+    static GameState readGameState(String json, String name) throws IOException {
+        GameState state = new GameState();
+        boolean dropBoard = false;
+        JsonReader in = open(json);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (skipNull(in)) continue;
+                switch (key) {
+                    case "nCoins" -> state.nCoins = readInt(in, name);
+                    case "currentLevel" -> state.currentLevel = readInt(in, name);
+                    case "lastLevel" -> state.lastLevel = readInt(in, name);
+                    case "score" -> state.score = readInt(in, name);
+                    case "backgroundColor" -> state.backgroundColor = in.nextString();
+                    case "apple" -> state.apple = in.nextBoolean();
+                    case "lemon" -> state.lemon = in.nextBoolean();
+                    case "berry" -> state.berry = in.nextBoolean();
+                    case "pear" -> state.pear = in.nextBoolean();
+                    case "gray" -> state.gray = in.nextBoolean();
+                    case "s_apple" -> state.s_apple = in.nextBoolean();
+                    case "s_lemon" -> state.s_lemon = in.nextBoolean();
+                    case "s_berry" -> state.s_berry = in.nextBoolean();
+                    case "s_pear" -> state.s_pear = in.nextBoolean();
+                    case "s_gray" -> state.s_gray = in.nextBoolean();
+                    case "bubblesToLaunch" -> {
+                        int[] ids = readOptional(in, name, value -> readIds(value, name, 1));
+                        if (ids == null) {
+                            dropBoard = true;
+                        } else {
+                            state.bubblesToLaunch = new ArrayList<>(ids.length);
+                            for (int id : ids) state.bubblesToLaunch.add(id);
+                        }
+                    }
+                    case "initialBoard" -> {
+                        state.initialBoard = readOptional(in, name, value -> readBoard(value, name, false));
+                        if (state.initialBoard == null) dropBoard = true;
+                    }
+                    case "purchasedColors" -> {
+                        List<Boolean> colors = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) colors.add(in.nextBoolean());
+                        in.endArray();
+                        state.purchasedColors = new boolean[colors.size()];
+                        for (int i = 0; i < colors.size(); i++) state.purchasedColors[i] = colors.get(i);
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+        if (dropBoard) {
+            // Sin el tablero o sin sus burbujas no se puede retomar la partida
+            state.bubblesToLaunch = null;
+            state.initialBoard = null;
+            state.score = 0;
+        }
+        return state;
+    }
+
+    // -- VALORES --
+
+    /* Tablero de ids de burbuja. En un nivel las filas pares tienen Grid.COLUMNS columnas y las impares
+    una menos; en un guardado (Grid.getBoard) todas pueden tener Grid.COLUMNS, con la ultima celda de
+    las impares vacia. */
+    private static int[][] readBoard(JsonReader in, String name, boolean level) throws IOException {
+        List<int[]> rows = new ArrayList<>(Grid.TOTALROWS);
+        int[] cells = new int[Grid.COLUMNS];
+        in.beginArray();
+        while (in.hasNext()) {
+            int r = rows.size();
+            if (r == Grid.TOTALROWS) throw error(in, name, "el tablero tiene mas de " + Grid.TOTALROWS + " filas");
+            String path = in.getPath(); // la de la fila; al cerrarla ya apunta a la siguiente
+            int count = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                int id = readId(in, name, 0, path, count);
+                if (count < cells.length) cells[count] = id;
+                count++;
+            }
+            in.endArray();
+
+            int expected = (r % 2 == 0) ? Grid.COLUMNS : Grid.COLUMNS - 1;
+            boolean valid = level ? count == expected
+                    : count <= expected || (count == Grid.COLUMNS && cells[Grid.COLUMNS - 1] == 0);
+            if (!valid) {
+                throw new IOException(name + ": la fila " + r + " tiene " + count + " columnas y deberia tener "
+                        + expected + " (las filas pares tienen " + Grid.COLUMNS + " y las impares "
+                        + (Grid.COLUMNS - 1) + ", desplazadas media burbuja) en " + path);
+            }
+            int[] row = new int[Math.min(count, Grid.COLUMNS)];
+            System.arraycopy(cells, 0, row, 0, row.length);
+            rows.add(row);
+        }
+        in.endArray();
+        return rows.toArray(new int[0][]);
+    }
+
+    // Lista de ids de burbuja (min 1 si no puede haber celdas vacias)
+    private static int[] readIds(JsonReader in, String name, int min) throws IOException {
+        int[] ids = new int[16];
+        int count = 0;
+        String path = in.getPath();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count] = readId(in, name, min, path, count);
+            count++;
+        }
+        in.endArray();
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Elemento `index` del array de `path` (la ruta del lector ya apunta al siguiente al leerlo)
+    private static int readId(JsonReader in, String name, int min, String path, int index) throws IOException {
+        int id = readInt(in, name);
+        if (id < min || id > MAX_BUBBLE_ID) {
+            throw new IOException(name + ": id de burbuja " + id + " fuera de rango (" + min + "-" + MAX_BUBBLE_ID
+                    + ") en " + path + "[" + index + "]");
+        }
+        return id;
+    }
+
+    private interface ValueReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    /* Valor que se puede perder sin perder el resto del archivo: se consume entero y se lee aparte con
+    `reader`; si no es valido se devuelve null. */
+    private static <T> T readOptional(JsonReader in, String name, ValueReader<T> reader) throws IOException {
+        String path = in.getPath();
+        JsonReader value = open(JsonParser.parseReader(in).toString());
+        try {
+            return reader.read(value);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            System.err.println("Se descarta " + path + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    // Un decimal o un numero demasiado grande lanzan NumberFormatException con la posicion
+    private static int readInt(JsonReader in, String name) throws IOException {
+        JsonToken token = in.peek();
+        if (token != JsonToken.NUMBER) throw error(in, name, "se esperaba un numero y hay " + token);
+        return in.nextInt();
+    }
+
+    private static JsonReader open(String json) {
+        JsonReader in = new JsonReader(new StringReader(json));
+        in.setLenient(true); // como Gson.fromJson
+        return in;
+    }
+
+    // Consume un null (el campo se queda con su valor por defecto)
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.NULL) return false;
+        in.nextNull();
+        return true;
+    }
+
+    private static IOException error(JsonReader in, String name, String message) {
+        return new IOException(name + ": " + message + " en " + in.getPath());
+    }
+}
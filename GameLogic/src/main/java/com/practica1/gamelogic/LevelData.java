@@ -0,0 +1,7 @@
+package com.practica1.gamelogic;
+
+// Nivel tal y como se lee de levelN.json
+class LevelData {
+    int[] bubblesToLaunch;
+    int[][] initialBoard; // filas de COLUMNS y COLUMNS - 1 columnas alternas (JsonCodec.readLevel)
+}
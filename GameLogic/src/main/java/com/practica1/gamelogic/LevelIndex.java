@@ -0,0 +1,276 @@
+package com.practica1.gamelogic;
+
+import com.google.gson.Gson;
+import com.practica1.engine.Engine;
+import com.practica1.engine.File;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* Indice de mundos y niveles (levels/index.json). Se genera al compilar (tarea levelIndex de Gradle)
+a partir de las carpetas levels/worldN, sus style.json y sus levelN.json, y en el arranque se lee solo
+este archivo (con JsonCodec, sin reflexion): el coste no depende de cuantos mundos o niveles haya. El contenido de cada nivel se sigue
+leyendo al seleccionarlo (Grid.loadLevelFromJson con getLevelPath()).
+
+Si el indice no existe (assets sin procesar) se reconstruye recorriendo las carpetas como antes. */
+public class LevelIndex {
+
+    public static final String INDEX_PATH = "levels/index.json";
+    public static final int VERSION = 1;
+
+    // Colores por defecto si un mundo no tiene style.json
+    private static final int DEFAULT_UNLOCKED = 0xffc8c8c8;
+    private static final int DEFAULT_LOCKED = 0xff646464;
+
+    // Datos de un nivel (sin el tablero, que se carga al jugarlo)
+    public static class Level {
+        int number; // numero global del nivel (1..N)
+        String path; // ruta del json del nivel dentro de los assets
+        int bubbles; // burbujas en el tablero inicial
+        int shots; // burbujas para lanzar
+
+        public int getNumber() { return number; }
+        public String getPath() { return path; }
+        public int getBubbles() { return bubbles; }
+        public int getShots() { return shots; }
+    }
+
+    // Datos de un mundo
+    public static class World {
+        String name; // nombre de la carpeta (worldN)
+        int colorUnlocked; // ARGB para niveles desbloqueados
+        int colorLocked; // ARGB para niveles bloqueados
+        Level[] levels;
+
+        public String getName() { return name; }
+        public int getColorUnlocked() { return colorUnlocked; }
+        public int getColorLocked() { return colorLocked; }
+        public int getLevelCount() { return levels.length; }
+        public Level getLevel(int i) { return levels[i]; }
+    }
+
+    // Acceso a los archivos de niveles: assets del motor en ejecucion, disco al generar el indice
+    interface Source {
+        String[] list(String path);
+        String read(String path);
+    }
+
+    int version;
+    World[] worlds;
+    private transient int[] cumulative; // niveles acumulados hasta cada mundo (incluido)
+
+    // -- CARGA --
+
+    // Lee el indice generado o, si no esta, lo reconstruye desde las carpetas de niveles
+    public static LevelIndex load(Engine engine) {
+        Source source = assetSource(engine);
+        String json = source.read(INDEX_PATH);
+        if (json != null) {
+            try {
+                LevelIndex index = JsonCodec.readIndex(json, INDEX_PATH);
+                if (index.version == VERSION && index.worlds != null) {
+                    index.computeCumulative();
+                    return index;
+                }
+                System.err.println("Indice de niveles con version no soportada, se recorren las carpetas");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return scan(source, null);
+    }
+
+    // Recorre las carpetas de niveles de los assets sin mirar el indice (recarga en caliente tras editar un nivel)
+    public static LevelIndex scan(Engine engine) {
+        return scan(assetSource(engine), null);
+    }
+
+    private static Source assetSource(Engine engine) {
+        return new Source() {
+            @Override
+            public String[] list(String path) {
+                return engine.getAssetsList(path);
+            }
+
+            @Override
+            public String read(String path) {
+                File file = engine.getAssetsFile(path);
+                return file.getContent();
+            }
+        };
+    }
+
+    /* Recorre levels/worldN leyendo estilos y cabeceras de los niveles. Un archivo mal formado se apunta en
+    `errors` (o en System.err si es null) y su mundo o nivel se queda con los valores por defecto. */
+    static LevelIndex scan(Source source, List<String> errors) {
+        List<World> worlds = new ArrayList<>();
+        String[] entries = source.list("levels");
+        if (entries == null) entries = new String[0];
+
+        // Los mundos se numeran de forma consecutiva desde world1
+        int worldCount = 0;
+        for (String entry : entries) {
+            if (entry.startsWith("world")) worldCount++;
+        }
+        for (int w = 1; w <= worldCount; w++) {
+            World world = new World();
+            world.name = "world" + w;
+            String dir = "levels/" + world.name;
+            loadStyle(world, dir + "/style.json", source.read(dir + "/style.json"), errors);
+
+            List<Level> levels = new ArrayList<>();
+            String[] files = source.list(dir);
+            if (files == null) files = new String[0];
+            for (String file : files) {
+                if (!file.startsWith("level") || !file.endsWith(".json")) continue;
+                Level level = new Level();
+                level.number = Integer.parseInt(file.substring("level".length(), file.length() - ".json".length()));
+                level.path = dir + "/" + file;
+                loadLevelInfo(level, source.read(level.path), errors);
+                levels.add(level);
+            }
+            levels.sort((a, b) -> Integer.compare(a.number, b.number)); // level10 se lista antes que level6
+            world.levels = levels.toArray(new Level[0]);
+            worlds.add(world);
+        }
+
+        LevelIndex index = new LevelIndex();
+        index.version = VERSION;
+        index.worlds = worlds.toArray(new World[0]);
+        index.computeCumulative();
+        return index;
+    }
+
+    private static void loadStyle(World world, String path, String json, List<String> errors) {
+        world.colorUnlocked = DEFAULT_UNLOCKED;
+        world.colorLocked = DEFAULT_LOCKED;
+        if (json == null) return;
+        try {
+            JsonCodec.readStyle(json, path, world);
+        } catch (IOException e) {
+            report(errors, e);
+        }
+    }
+
+    private static void loadLevelInfo(Level level, String json, List<String> errors) {
+        if (json == null) return;
+        LevelData data;
+        try {
+            data = JsonCodec.readLevel(json, level.path);
+        } catch (IOException e) {
+            report(errors, e);
+            return;
+        }
+        for (int[] row : data.initialBoard) {
+            for (int cell : row) {
+                if (cell != 0) level.bubbles++;
+            }
+        }
+        level.shots = data.bubblesToLaunch.length;
+    }
+
+    private static void report(List<String> errors, IOException e) {
+        if (errors != null) errors.add(e.getMessage());
+        else System.err.println("Archivo de niveles no valido: " + e.getMessage());
+    }
+
+    private void computeCumulative() {
+        cumulative = new int[worlds.length];
+        int total = 0;
+        for (int i = 0; i < worlds.length; i++) {
+            total += worlds[i].levels.length;
+            cumulative[i] = total;
+        }
+    }
+
+    // -- CONSULTAS --
+
+    public int getWorldCount() {
+        return worlds.length;
+    }
+
+    public World getWorld(int i) {
+        return worlds[i];
+    }
+
+    public int getLevelCount() {
+        return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+    }
+
+    // Niveles acumulados hasta cada mundo (incluido), el formato de SceneManager.WORLDSIZE
+    public int[] getCumulativeSizes() {
+        return Arrays.copyOf(cumulative, cumulative.length);
+    }
+
+    // Indice (desde 0) del mundo al que pertenece un nivel, o -1 si no existe
+    public int getWorldOfLevel(int level) {
+        if (level < 1) return -1;
+        for (int i = 0; i < cumulative.length; i++) {
+            if (level <= cumulative[i]) return i;
+        }
+        return -1;
+    }
+
+    // Ruta del json de un nivel, o null si no existe
+    public String getLevelPath(int level) {
+        int world = getWorldOfLevel(level);
+        if (world < 0) return null;
+        int first = (world == 0) ? 1 : cumulative[world - 1] + 1;
+        return worlds[world].levels[level - first].path;
+    }
+
+    // -- GENERACION --
+
+    // Genera <assets>/levels/index.json a partir de las carpetas de niveles de `assets`
+    public static void write(Path assets) throws IOException {
+        Source source = new Source() {
+            @Override
+            public String[] list(String path) {
+                String[] names = assets.resolve(path).toFile().list();
+                if (names != null) Arrays.sort(names);
+                return names;
+            }
+
+            @Override
+            public String read(String path) {
+                Path file = assets.resolve(path);
+                if (!Files.isRegularFile(file)) return null;
+                try {
+                    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new RuntimeException("No se pudo leer " + file, e);
+                }
+            }
+        };
+        List<String> errors = new ArrayList<>();
+        LevelIndex index = scan(source, errors);
+        if (!errors.isEmpty()) {
+            throw new IOException("Niveles mal formados, no se genera el indice:\n  " + String.join("\n  ", errors));
+        }
+
+        Path out = assets.resolve(INDEX_PATH);
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        Files.write(tmp, new Gson().toJson(index).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Indice de niveles generado: " + out + " (" + index.getWorldCount()
+                + " mundos, " + index.getLevelCount() + " niveles)");
+    }
+
+    // Uso: LevelIndex <carpeta de assets>...
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: LevelIndex <carpeta de assets>...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            write(Paths.get(arg));
+        }
+    }
+}
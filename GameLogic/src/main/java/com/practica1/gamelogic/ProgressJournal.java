@@ -0,0 +1,107 @@
+package com.practica1.gamelogic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/* Registros del diario de progreso (SaveStore.append). Cada cambio pequeño del progreso se guarda como
+un registro de pocos bytes en lugar de reescribir todo el GameState; al cargar se aplican en orden sobre
+la ultima foto. Cuando el diario crece, SceneManager hace una foto nueva y el diario vuelve a empezar.
+
+Formato: un byte de tipo y sus valores en varint (como en GameStateCodec). No reutilizar tipos retirados. */
+final class ProgressJournal {
+
+    private static final int COINS = 1; // diferencia de monedas (zigzag)
+    private static final int LEVEL = 2; // nivel alcanzado
+    private static final int SKIN_UNLOCKED = 3; // skin, 0/1
+    private static final int SKIN_SELECTED = 4; // skin, 0/1
+    private static final int COLOR_PURCHASED = 5; // ordinal de ColorEnum, 0/1
+    private static final int BACKGROUND = 6; // ordinal de ColorEnum
+    private static final int BOARD = 7; // campos de partida a medias de GameStateCodec
+
+    private ProgressJournal() {
+    }
+
+    // -- REGISTROS --
+
+    static byte[] coins(int delta) {
+        return record(COINS, delta << 1 ^ delta >> 31);
+    }
+
+    static byte[] level(int level) {
+        return record(LEVEL, level);
+    }
+
+    static byte[] skinUnlocked(int skin, boolean unlocked) {
+        return record(SKIN_UNLOCKED, skin, unlocked ? 1 : 0);
+    }
+
+    static byte[] skinSelected(int skin, boolean selected) {
+        return record(SKIN_SELECTED, skin, selected ? 1 : 0);
+    }
+
+    static byte[] colorPurchased(int color, boolean purchased) {
+        return record(COLOR_PURCHASED, color, purchased ? 1 : 0);
+    }
+
+    static byte[] background(ColorEnum color) {
+        return record(BACKGROUND, color.ordinal());
+    }
+
+    // Partida a medias (punto de control tras un disparo); sin burbujas (null) indica que ya no hay ninguna
+    static byte[] board(int lastLevel, List<Integer> bubbles, int[][] board, int score) {
+        byte[] fields = GameStateCodec.encodeBoard(lastLevel, bubbles, board, score);
+        byte[] record = new byte[fields.length + 1];
+        record[0] = BOARD;
+        System.arraycopy(fields, 0, record, 1, fields.length);
+        return record;
+    }
+
+    private static byte[] record(int type, int... values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + values.length * 2);
+        out.write(type);
+        for (int value : values) GameStateCodec.writeVarint(out, value);
+        return out.toByteArray();
+    }
+
+    // -- APLICAR --
+
+    // Aplica un registro sobre el estado cargado; los tipos desconocidos (de versiones posteriores) se ignoran
+    static void apply(GameState state, byte[] record) throws IOException {
+        if (record.length == 0) throw new IOException("Registro del diario vacio");
+        GameStateCodec.Reader in = new GameStateCodec.Reader(record, 1, record.length);
+        switch (record[0]) {
+            case COINS -> {
+                int zigzag = in.readVarint();
+                state.nCoins = Math.max(0, state.nCoins + (zigzag >>> 1 ^ -(zigzag & 1)));
+            }
+            case LEVEL -> state.currentLevel = in.readVarint();
+            case SKIN_UNLOCKED -> setSkin(state, in.readVarint(), in.readVarint() != 0, false);
+            case SKIN_SELECTED -> setSkin(state, in.readVarint(), in.readVarint() != 0, true);
+            case COLOR_PURCHASED -> {
+                int color = in.readVarint();
+                boolean purchased = in.readVarint() != 0;
+                if (state.purchasedColors == null) state.purchasedColors = new boolean[ColorEnum.values().length];
+                if (color < state.purchasedColors.length) state.purchasedColors[color] = purchased;
+            }
+            case BACKGROUND -> {
+                int color = in.readVarint();
+                if (color < ColorEnum.values().length) state.backgroundColor = ColorEnum.values()[color].name();
+            }
+            case BOARD -> GameStateCodec.setBoardFields(state, Arrays.copyOfRange(record, 1, record.length));
+            default -> { } // registro de una version posterior
+        }
+    }
+
+    private static void setSkin(GameState state, int skin, boolean value, boolean selected) {
+        switch (skin) {
+            case SceneManager.SKIN_APPLE -> { if (selected) state.s_apple = value; else state.apple = value; }
+            case SceneManager.SKIN_LEMON -> { if (selected) state.s_lemon = value; else state.lemon = value; }
+            case SceneManager.SKIN_BERRY -> { if (selected) state.s_berry = value; else state.berry = value; }
+            case SceneManager.SKIN_PEAR -> { if (selected) state.s_pear = value; else state.pear = value; }
+            case SceneManager.SKIN_GRAY -> { if (selected) state.s_gray = value; else state.gray = value; }
+            default -> { }
+        }
+    }
+}
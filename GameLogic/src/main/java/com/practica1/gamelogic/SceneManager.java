@@ -1,24 +1,17 @@
 package com.practica1.gamelogic;
 
-import com.google.gson.Gson;
 import com.practica1.engine.Engine;
-import com.practica1.engine.File;
 import com.practica1.engine.Mobile;
+import com.practica1.engine.ResourceManager;
+import com.practica1.engine.SaveStore;
 import com.practica1.engine.State;
-import java.util.List;
 
-// Clase que representa el estado del juego para guardar y cargar progreso
-class GameState {
-    int nCoins; // Número de monedas del jugador
-    int currentLevel; // Nivel actual
-    int lastLevel; // Último nivel jugado
-    String backgroundColor; // Color de fondo actual
-    boolean apple, lemon, berry, pear, gray; // Estados de desbloqueo de colores
-    boolean s_apple, s_lemon, s_berry, s_pear, s_gray; // Estados de selección de colores
-    List<Integer> bubblesToLaunch; // Lista de burbujas pendientes por lanzar
-    int[][] initialBoard; // Estado inicial del tablero
-    boolean[] purchasedColors; // Colores comprados
-}
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class SceneManager {
     // Singleton: instancia única de SceneManager
@@ -27,11 +20,20 @@ public class SceneManager {
     private Engine engine; // Motor del juego
     private Mobile mobile; // Información sobre el dispositivo móvil
     public String world; // Mundo actual
-    private File file; // Archivo de guardado
+    private SaveStore saveStore; // Guardado del perfil actual (escritura atómica en segundo plano)
+    private String savePath; // Archivo de guardado del primer perfil; el resto se llaman igual con su número
+    private int profile = 0; // Perfil actual
+    private boolean switchingProfile = false; // Se está cargando otro perfil en segundo plano
+    public static final int PROFILES = 3; // Perfiles de guardado (progreso, monedas y skins separados)
+    private static final long JOURNAL_LIMIT = 4 * 1024; // Bytes de diario a partir de los que se hace una foto nueva
+
+    // Skins de burbujas (en el guardado y el diario)
+    public static final int SKIN_APPLE = 0, SKIN_LEMON = 1, SKIN_BERRY = 2, SKIN_PEAR = 3, SKIN_GRAY = 4;
     private String levelName; // Nombre del nivel actual
     private ColorEnum initialColor = ColorEnum.GRAY; // Color inicial por defecto
     private int logicWidth, logicHeight; // Dimensiones lógicas del juego
     private State currentScene; // Escena actual
+    private Object sceneOwner; // Dueño de los recursos de la escena actual en el ResourceManager
     public boolean isFirstLevel = true; // Indica si es el primer nivel de la ejecución
     public boolean[] purchasedColors; // Array de colores comprados
 
@@ -45,14 +47,20 @@ public class SceneManager {
     public boolean selectedApple, selectedLemon, selectedBerry, selectedPear, selectedGris; // Colores seleccionados
     private List<Integer> currentBubblesToLaunch; // Lista de burbujas actuales
     private int[][] currentBoard; // Tablero actual
+    private int currentScore; // Puntuación del tablero actual
+    private byte[] savedBoard; // Tablero guardado sin decodificar; se decodifica al retomar el nivel (ensureBoard)
 
     public boolean adventure; // Indica si el modo aventura está activo
     public boolean levelOnCourse = false; // Indica si un nivel está en curso
     private boolean shouldUpdateLevels = true; // Controla si los niveles deben actualizarse
 
+    // Carga de escenas en segundo plano
+    private final AtomicBoolean loadingScene = new AtomicBoolean(false); // Hay una escena construyendose
+
     // Variables relacionadas con mundos y niveles
     public int NMUNDOS; // Número total de mundos
-    public int[] WORLDSIZE; // Tamaño de cada mundo en niveles
+    public int[] WORLDSIZE; // Niveles acumulados hasta cada mundo (incluido)
+    private LevelIndex levelIndex; // Indice de mundos, estilos y niveles
 
     // Método para obtener la instancia única del Singleton
     public static synchronized SceneManager getInstance() {
@@ -77,85 +85,275 @@ public class SceneManager {
     // Inicializa el SceneManager con el motor, dimensiones y archivo de guardado
     public void Init(Engine engine, Mobile mobile, int width, int height, String jsonPath) {
         this.engine = engine;
+        this.mobile = mobile;
         logicWidth = width;
         logicHeight = height;
 
         // Carga los mundos y niveles desde los assets
         loadWorldsAndLevels();
 
-        // Carga el progreso guardado
-        file = engine.getInternalFile(jsonPath);
-        shouldUpdateLevels = false;
-        loadFile();
-        shouldUpdateLevels = true;
+        // Carga el progreso guardado del ultimo perfil usado
+        savePath = jsonPath;
+        profile = readActiveProfile();
+        openProfile();
 
         // Configura la escena inicial como IntroScene
-        currentScene = new IntroScene(engine, mobile, bColor);
-        engine.changeScene(currentScene);
+        Object owner = new Object();
+        swapScene(buildScene(owner, () -> new IntroScene(engine, mobile, bColor)), owner);
     }
 
-    // Carga los mundos y niveles desde los assets
+    // Carga los mundos y niveles desde el indice de niveles (un solo archivo; los niveles se leen al jugarlos)
     private void loadWorldsAndLevels() {
-        int worldCount = 0;
-        String[] worlds = engine.getAssetsList("levels"); // Obtiene la lista de mundos
-        for (String world : worlds) {
-            if (world.startsWith("world")) { // Filtra carpetas con el prefijo "world"
-                worldCount++;
+        loadLevelIndex(LevelIndex.load(engine));
+    }
+
+    /* Recarga en caliente durante el desarrollo (escritorio): vuelve a recorrer las carpetas de niveles sin
+    el indice generado, que ya no coincide, y si se esta en el selector de niveles lo rehace para ver los
+    estilos nuevos. El tablero de cada nivel se lee al empezarlo, asi que un nivel editado se ve la
+    proxima vez que se juegue. Llamar en el hilo del juego. */
+    public void reloadLevels() {
+        loadLevelIndex(LevelIndex.scan(engine));
+        if (currentScene instanceof Aventura) {
+            loadSceneAsync(() -> new Aventura(engine.getGraphics(), engine.getAudio(), mobile, bColor));
+        }
+    }
+
+    private void loadLevelIndex(LevelIndex index) {
+        levelIndex = index;
+        NMUNDOS = levelIndex.getWorldCount(); // Número total de mundos
+        WORLDSIZE = levelIndex.getCumulativeSizes();
+    }
+
+    public LevelIndex getLevelIndex() {
+        return levelIndex;
+    }
+
+    // -- PERFILES --
+
+    public int getProfile() {
+        return profile;
+    }
+
+    /* Cambia de perfil: guarda el actual y carga solo el guardado del nuevo (los niveles, estilos y
+    recursos ya cargados no se vuelven a leer). La lectura se hace en el ejecutor de E/S y el progreso
+    del perfil nuevo sustituye al actual en el hilo del juego, cuando ya esta leido; entonces se llama a
+    `onSwitched` (puede ser null). Mientras tanto se sigue con el perfil actual y no se puede pedir otro
+    cambio. Llamar en el hilo del juego. */
+    public void switchProfile(int newProfile, Runnable onSwitched) {
+        if (newProfile == profile || newProfile < 0 || newProfile >= PROFILES || saveStore == null) return;
+        if (switchingProfile) return;
+        switchingProfile = true;
+        requestSave();
+        SaveStore previous = saveStore;
+        SaveStore next = newSaveStore(newProfile);
+        engine.getJobs().io(() -> {
+            previous.flush(500); // que no quede nada por escribir del perfil anterior si se vuelve a el enseguida
+            engine.getInternalFile(savePath + ".profile").setContent(String.valueOf(newProfile));
+            return readProfile(next);
+        }, (saved, error) -> {
+            switchingProfile = false;
+            if (error != null) {
+                error.printStackTrace(); // se sigue con el perfil actual
+                return;
+            }
+            profile = newProfile;
+            installProfile(next, saved);
+            if (onSwitched != null) onSwitched.run();
+        });
+    }
+
+    public boolean isSwitchingProfile() {
+        return switchingProfile;
+    }
+
+    private int readActiveProfile() {
+        String stored = engine.getInternalFile(savePath + ".profile").getContent();
+        try {
+            int value = (stored == null) ? 0 : Integer.parseInt(stored.trim());
+            return (value >= 0 && value < PROFILES) ? value : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Abre el guardado del perfil actual y carga su progreso sobre el progreso por defecto
+    private void openProfile() {
+        SaveStore store = newSaveStore(profile);
+        installProfile(store, readProfile(store));
+    }
+
+    /* Archivo de guardado del perfil `n` (el primero usa `savePath` tal cual). Cada uno tiene al lado su
+    copia de seguridad (".bak") y su diario (".journal"); el perfil activo se apunta en savePath + ".profile". */
+    public static String profilePath(String savePath, int n) {
+        return (n == 0) ? savePath : savePath + "." + n;
+    }
+
+    private SaveStore newSaveStore(int n) {
+        String path = profilePath(savePath, n);
+        return new SaveStore(engine.getInternalFile(path), engine.getInternalFile(path + ".bak"),
+                engine.getInternalFile(path + ".journal"), engine.getJobs(), engine.getSaveKey());
+    }
+
+    // Pasa a usar `store` con el progreso leído de él (en el hilo del juego)
+    private void installProfile(SaveStore store, SavedProfile saved) {
+        saveStore = store;
+        resetProgress();
+        shouldUpdateLevels = false;
+        loadFile(saved);
+        shouldUpdateLevels = true;
+    }
+
+    // Progreso de un perfil nuevo
+    private void resetProgress() {
+        coins = 10;
+        level = 1;
+        bColor = ColorEnum.WHITE;
+        purchasedColors = new boolean[ColorEnum.values().length];
+        customizationApple = customizationLemon = customizationBerry = customizationPear = customizarGris = false;
+        selectedApple = selectedLemon = selectedBerry = selectedPear = selectedGris = false;
+        synchronized (this) {
+            currentBubblesToLaunch = null;
+            currentBoard = null;
+            currentScore = 0;
+            savedBoard = null;
+        }
+        lastLevelPlayed = 0;
+        levelOnCourse = false;
+        isFirstLevel = true;
+    }
+
+    // Lo leido del disco de un perfil: la foto (null si no hay nada valido) y los registros del diario
+    private static final class SavedProfile {
+        final SaveStore.Snapshot snapshot;
+        final List<byte[]> journal;
+
+        SavedProfile(SaveStore.Snapshot snapshot, List<byte[]> journal) {
+            this.snapshot = snapshot;
+            this.journal = journal;
+        }
+    }
+
+    // Lee la foto y el diario de `store`; solo E/S, se puede llamar desde cualquier hilo
+    private static SavedProfile readProfile(SaveStore store) {
+        SaveStore.Snapshot snapshot;
+        try {
+            snapshot = store.load();
+        } catch (IOException e) {
+            // Ni el guardado ni su copia tienen nada valido: se empieza con el progreso por defecto
+            e.printStackTrace();
+            return new SavedProfile(null, Collections.emptyList());
+        }
+        List<byte[]> journal;
+        try {
+            journal = store.loadJournal();
+        } catch (IOException e) {
+            // Diario dañado: se queda la foto sin los cambios posteriores
+            e.printStackTrace();
+            journal = Collections.emptyList();
+        }
+        return new SavedProfile(snapshot, journal);
+    }
+
+    /* Carga el progreso guardado (secciones de GameStateCodec, o el JSON de versiones anteriores) y le
+    aplica los cambios del diario. Las secciones dañadas ya vienen de la copia de seguridad del SaveStore;
+    las que no tienen ninguna copia valida se quedan con el progreso por defecto y se escribe enseguida
+    una foto entera nueva. */
+    private void loadFile(SavedProfile profileData) {
+        SaveStore.Snapshot saved = profileData.snapshot;
+        if (saved == null) return;
+        List<byte[]> journal = profileData.journal;
+
+        GameState gameState = null;
+        byte[] data = saved.getPayload();
+        if (data != null && data.length > 0) {
+            try {
+                gameState = JsonCodec.readGameState(new String(data, StandardCharsets.UTF_8), "guardado del perfil " + profile);
+            } catch (IOException | RuntimeException e) {
+                // Guardado ilegible: se empieza con el progreso por defecto
+                e.printStackTrace();
             }
         }
-        NMUNDOS = worldCount; // Número total de mundos
-        WORLDSIZE = new int[NMUNDOS];
-        int nLevels = 0;
-        for (int i = 0; i < worldCount; i++) {
-            String[] levelsInWorld = engine.getAssetsList("levels/world" + (i + 1));
-            for (String levelInWorld : levelsInWorld) {
-                if (levelInWorld.startsWith("level")) { // Filtra niveles con el prefijo "level"
-                    nLevels++;
-                }
+        for (int section : saved.getSectionIds()) {
+            if (gameState == null) gameState = snapshot(); // las secciones que falten se quedan por defecto
+            try {
+                GameStateCodec.decodeSection(section, saved.getSection(section), gameState);
+            } catch (IOException e) {
+                e.printStackTrace(); // seccion ilegible aunque la etiqueta sea buena: se queda por defecto
             }
-            WORLDSIZE[i] = nLevels; // Tamaño del mundo en niveles
+        }
+        if (gameState == null) {
+            if (journal.isEmpty()) return;
+            gameState = snapshot(); // diario sin foto: se aplica sobre el progreso por defecto
+        }
+        try {
+            for (byte[] record : journal) ProgressJournal.apply(gameState, record);
+        } catch (IOException e) {
+            e.printStackTrace(); // se queda con lo aplicado hasta el registro roto
+        }
+        applyState(gameState);
+
+        if (saved.getStatus() == SaveStore.Status.RECOVERED) {
+            System.err.println("Guardado dañado: secciones recuperadas de la copia " + saved.getRecovered()
+                    + ", validas " + saved.getSectionIds());
+            requestSave(); // la siguiente carga ya no depende de la copia
         }
     }
 
-    // Carga el progreso guardado desde un archivo JSON
-    private void loadFile() {
-        String json = file.getContent();
-
-        // Si el archivo no está vacío, carga el estado del juego
-        if (json != null) {
-            Gson gson = new Gson();
-            GameState gameState = gson.fromJson(json, GameState.class);
-            coins = gameState.nCoins;
-            level = gameState.currentLevel;
-            if (level < 1) level = 1;
-
-            // Configura el color de fondo
-            bColor = (gameState.backgroundColor == null) ? ColorEnum.GRAY : strToColorEnum(gameState.backgroundColor);
-
-            // Carga los colores comprados y seleccionados
-            purchasedColors = (gameState.purchasedColors != null) ? gameState.purchasedColors : purchasedColors;
-            customizationApple = gameState.apple;
-            customizationLemon = gameState.lemon;
-            customizationBerry = gameState.berry;
-            customizationPear = gameState.pear;
-            customizarGris = gameState.gray;
-            selectedApple = gameState.s_apple;
-            selectedLemon = gameState.s_lemon;
-            selectedBerry = gameState.s_berry;
-            selectedPear = gameState.s_pear;
-            selectedGris = gameState.s_gray;
+    // Apunta un cambio del progreso en el diario; si el diario ha crecido mucho se hace una foto nueva
+    private void journal(byte[] record) {
+        if (saveStore == null) return; // Init no ha llegado a ejecutarse
+        saveStore.append(record);
+        if (saveStore.getJournalSize() > JOURNAL_LIMIT) requestSave();
+    }
 
-            currentBubblesToLaunch = gameState.bubblesToLaunch;
+    private void applyState(GameState gameState) {
+        coins = gameState.nCoins;
+        level = gameState.currentLevel;
+        if (level < 1) level = 1;
+
+        // Configura el color de fondo
+        bColor = (gameState.backgroundColor == null) ? ColorEnum.GRAY : strToColorEnum(gameState.backgroundColor);
+
+        // Carga los colores comprados y seleccionados
+        purchasedColors = (gameState.purchasedColors != null) ? gameState.purchasedColors : purchasedColors;
+        customizationApple = gameState.apple;
+        customizationLemon = gameState.lemon;
+        customizationBerry = gameState.berry;
+        customizationPear = gameState.pear;
+        customizarGris = gameState.gray;
+        selectedApple = gameState.s_apple;
+        selectedLemon = gameState.s_lemon;
+        selectedBerry = gameState.s_berry;
+        selectedPear = gameState.s_pear;
+        selectedGris = gameState.s_gray;
 
-            // Si no hay burbujas pendientes, no hay partidas a medias
-            lastLevelPlayed = (currentBubblesToLaunch == null) ? 0 : gameState.lastLevel;
+        synchronized (this) {
+            currentBubblesToLaunch = gameState.bubblesToLaunch;
             currentBoard = gameState.initialBoard;
+            currentScore = (currentBubblesToLaunch == null) ? 0 : gameState.score;
+            savedBoard = gameState.boardFields; // el tablero del guardado binario se decodifica al retomarlo
         }
+
+        // Si no hay burbujas pendientes, no hay partidas a medias
+        lastLevelPlayed = (currentBubblesToLaunch == null && savedBoard == null) ? 0 : gameState.lastLevel;
     }
 
-    // Guarda el estado del juego en un archivo JSON
-    public void saveFile(String jsonPath) {
-        // Crear un nuevo estado del juego
+    /* Pide guardar la partida. Se llama en el hilo del juego (o con el bucle parado, como en onPause):
+    aqui solo se copia el estado; codificarlo y escribirlo se hace en segundo plano y, si se piden varios
+    guardados seguidos, solo se escribe el ultimo. */
+    public void requestSave() {
+        if (saveStore == null) return; // Init no ha llegado a ejecutarse
+        GameState snapshot = snapshot();
+        saveStore.save(() -> GameStateCodec.encodeSections(snapshot));
+    }
+
+    // Espera a que terminen los guardados pendientes (p. ej. antes de que el sistema pare la aplicacion)
+    public boolean flushSave(long timeoutMillis) {
+        return saveStore == null || saveStore.flush(timeoutMillis);
+    }
+
+    // Copia del estado que se guarda; no comparte nada mutable con el juego
+    private GameState snapshot() {
         GameState gS = new GameState();
         gS.nCoins = coins;
         gS.currentLevel = level;
@@ -171,32 +369,38 @@ public class SceneManager {
         gS.s_berry = selectedBerry;
         gS.s_pear = selectedPear;
         gS.s_gray = selectedGris;
-        gS.purchasedColors = purchasedColors;
+        gS.purchasedColors = purchasedColors.clone();
 
-        // Si estamos en modo aventura, guarda el estado del tablero
+        // Si estamos en modo aventura, guarda el estado del tablero (Grid devuelve copias);
+        // fuera del tablero se guarda el ultimo punto de control
         if (adventure && currentScene instanceof Grid grid) {
             gS.bubblesToLaunch = grid.getBubblesToLaunch();
             gS.initialBoard = grid.getCurrentGrid();
+            gS.score = grid.getScore();
+        } else {
+            synchronized (this) {
+                gS.bubblesToLaunch = currentBubblesToLaunch;
+                gS.initialBoard = currentBoard;
+                gS.score = currentScore;
+                gS.boardFields = savedBoard; // sin retomar no hace falta decodificarlo para guardarlo
+            }
         }
-
-        // Convierte el estado del juego a JSON y lo guarda en el archivo
-        Gson gson = new Gson();
-        String json = gson.toJson(gS);
-        File file = engine.getInternalFile(jsonPath);
-        file.setContent(json);
+        return gS;
     }
 
     // Añade niveles completados
     public void addLevel(int num) {
         if (shouldUpdateLevels) {
             level += num;
+            journal(ProgressJournal.level(level));
         }
     }
 
     // Establece el nivel actual
     public void setLevelName(int num) {
-        if (shouldUpdateLevels) {
+        if (shouldUpdateLevels && level != num) {
             level = num;
+            journal(ProgressJournal.level(level));
         }
     }
 
@@ -206,8 +410,10 @@ public class SceneManager {
     }
 
     public void addCoins(int Coins) {
+        int before = coins;
         coins += Coins;
         if (coins < 0) coins = 0; // Capar a 0
+        if (coins != before) journal(ProgressJournal.coins(coins - before));
     }
 
     // Métodos para establecer y obtener el mundo actual
@@ -219,14 +425,85 @@ public class SceneManager {
         return world;
     }
 
-    // Cambia la escena actual
+    // Cambia la escena actual avisando a la escena que sale y a la que entra
     public void setCurrentScene(State newScene) {
         if (newScene != null) {
+            if (currentScene != null) currentScene.onExit();
             currentScene = newScene;
             engine.changeScene(currentScene);
+            currentScene.onEnter();
         }
     }
 
+    // La aplicacion pasa a segundo plano (llamar con el bucle del motor ya parado)
+    public void onPause() {
+        if (currentScene != null) currentScene.onPause();
+    }
+
+    // La aplicacion vuelve a primer plano (llamar antes de reanudar el bucle del motor)
+    public void onResume() {
+        if (currentScene != null) currentScene.onResume();
+    }
+
+    /* Construye la siguiente escena (y sus recursos) en el pool de trabajos del motor. Mientras tanto
+    se sigue mostrando la escena actual y, cuando la nueva esta lista, se cambia en el hilo del juego
+    al principio del siguiente frame. Si ya hay una carga en curso la peticion se ignora y devuelve false.
+    Si la construccion falla (p. ej. un nivel mal formado) se mantiene la escena actual y se llama a
+    `onFailure` en el hilo del juego, para que la escena vuelva a aceptar entradas. */
+    public boolean loadSceneAsync(Supplier<State> factory, Runnable onFailure) {
+        if (!loadingScene.compareAndSet(false, true)) return false;
+        Object owner = new Object();
+        engine.getJobs().cpu(() -> buildScene(owner, factory), (scene, error) -> {
+            loadingScene.set(false); // antes de onFailure, que puede pedir otra escena
+            if (error != null) {
+                error.printStackTrace();
+                engine.getResources().release(owner);
+                if (onFailure != null) onFailure.run();
+            } else {
+                swapScene(scene, owner);
+            }
+        });
+        return true;
+    }
+
+    public boolean loadSceneAsync(Supplier<State> factory) {
+        return loadSceneAsync(factory, null);
+    }
+
+    // Construye una escena apuntando a `owner` todos los recursos que pida durante la construccion
+    private State buildScene(Object owner, Supplier<State> factory) {
+        ResourceManager resources = engine.getResources();
+        Object previous = resources.setThreadOwner(owner);
+        try {
+            return factory.get();
+        } finally {
+            resources.setThreadOwner(previous);
+        }
+    }
+
+    /* Activa la escena nueva y libera los recursos que solo usaba la anterior (bitmaps, sonidos del
+    SoundPool, clips). Los que comparten las dos ya los ha pedido la nueva y se quedan, asi que no se
+    vuelven a decodificar. La liberacion se hace en el tiempo libre del frame (TaskScheduler), no en el
+    frame del cambio. La memoria queda igual tras cualquier numero de cambios. */
+    private void swapScene(State scene, Object owner) {
+        if (scene == null) {
+            engine.getResources().release(owner);
+            return;
+        }
+        Object previousOwner = sceneOwner;
+        setCurrentScene(scene);
+        sceneOwner = owner;
+        engine.getResources().setOwnerName(owner, scene.getClass().getSimpleName()); // Para el desglose de memoria
+        engine.getResources().setDefaultOwner(owner); // Lo que cargue la escena mientras se juega
+        engine.getResources().release(previousOwner);
+        engine.getScheduler().schedule(engine.getResources()::evictUnused);
+    }
+
+    // Indica si hay una escena cargandose en segundo plano
+    public boolean isLoadingScene() {
+        return loadingScene.get();
+    }
+
     // Getters de dimensiones lógicas
     public int getLogicHeight() {
         return logicHeight;
@@ -245,20 +522,72 @@ public class SceneManager {
         return mobile;
     }
 
+    public ColorEnum getBackgroundColor() {
+        return bColor;
+    }
+
     // Cambia el color de fondo
     public void changeBackgroundColor(ColorEnum color) {
         bColor = color;
+        journal(ProgressJournal.background(color));
     }
 
-    // Métodos para obtener el estado actual del tablero
-    public List<Integer> getCurrentBubblesToLaunch() {
+    // Métodos para obtener el estado actual del tablero (lo decodifican la primera vez)
+    public synchronized List<Integer> getCurrentBubblesToLaunch() {
+        ensureBoard();
         return currentBubblesToLaunch;
     }
 
-    public int[][] getCurrentGrid() {
+    public synchronized int[][] getCurrentGrid() {
+        ensureBoard();
         return currentBoard;
     }
 
+    public synchronized int getCurrentScore() {
+        ensureBoard();
+        return currentScore;
+    }
+
+    // Decodifica el tablero guardado al retomar el nivel (Grid se construye en segundo plano, por eso el lock)
+    private void ensureBoard() {
+        if (savedBoard == null) return;
+        GameState board = new GameState();
+        try {
+            GameStateCodec.decodeBoard(savedBoard, board);
+            currentBubblesToLaunch = board.bubblesToLaunch;
+            currentBoard = board.initialBoard;
+            currentScore = board.score;
+        } catch (IOException e) {
+            e.printStackTrace(); // tablero ilegible: el nivel empieza de cero
+        }
+        savedBoard = null;
+    }
+
+    /* Punto de control de la partida a medias; Grid lo pide tras cada disparo resuelto con copias del
+    tablero y de las burbujas por lanzar. Va al diario (unos 100 bytes) y se escribe en segundo plano,
+    asi que si el sistema mata la aplicacion solo se pierde el disparo en curso. */
+    public void checkpoint(List<Integer> bubbles, int[][] board, int score) {
+        synchronized (this) {
+            currentBubblesToLaunch = bubbles;
+            currentBoard = board;
+            currentScore = score;
+            savedBoard = null;
+        }
+        journal(ProgressJournal.board(lastLevelPlayed, bubbles, board, score));
+    }
+
+    // La partida ha terminado (victoria o derrota): ya no hay nada que retomar
+    public void clearCheckpoint() {
+        synchronized (this) {
+            if (currentBubblesToLaunch == null && currentBoard == null && savedBoard == null) return;
+            currentBubblesToLaunch = null;
+            currentBoard = null;
+            currentScore = 0;
+            savedBoard = null;
+        }
+        journal(ProgressJournal.board(lastLevelPlayed, null, null, 0));
+    }
+
     // Métodos relacionados con el último nivel jugado
     public void setLastLevelPlayed(int lv) {
         lastLevelPlayed = lv;
@@ -299,26 +628,45 @@ public class SceneManager {
 
     public void setPurchasedColor(int index, boolean estado) {
         purchasedColors[index] = estado;
+        journal(ProgressJournal.colorPurchased(index, estado));
     }
 
     public void setApple(boolean estado) {
         customizationApple = estado;
+        journal(ProgressJournal.skinUnlocked(SKIN_APPLE, estado));
     }
 
     public void setLemon(boolean estado) {
         customizationLemon = estado;
+        journal(ProgressJournal.skinUnlocked(SKIN_LEMON, estado));
     }
 
     public void setGrey(Boolean estado) {
         customizarGris = estado;
+        journal(ProgressJournal.skinUnlocked(SKIN_GRAY, estado));
     }
 
     public void setBlueBerry(Boolean estado) {
         customizationBerry = estado;
+        journal(ProgressJournal.skinUnlocked(SKIN_BERRY, estado));
     }
 
     public void setPear(boolean estado) {
         customizationPear = estado;
+        journal(ProgressJournal.skinUnlocked(SKIN_PEAR, estado));
+    }
+
+    // Selecciona o quita una skin (SKIN_*)
+    public void setSelected(int skin, boolean estado) {
+        switch (skin) {
+            case SKIN_APPLE -> selectedApple = estado;
+            case SKIN_LEMON -> selectedLemon = estado;
+            case SKIN_BERRY -> selectedBerry = estado;
+            case SKIN_PEAR -> selectedPear = estado;
+            case SKIN_GRAY -> selectedGris = estado;
+            default -> throw new IllegalArgumentException("Skin desconocida: " + skin);
+        }
+        journal(ProgressJournal.skinSelected(skin, estado));
     }
 
     public void setAdventure(boolean estado) {
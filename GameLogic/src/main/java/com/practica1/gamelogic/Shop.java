@@ -66,6 +66,7 @@ public class Shop implements State {
 
     private float alpha = 255; // Transparencia para efectos de desvanecimiento.
     private boolean fadingOut = false; // Indica si la pantalla se está desvaneciendo.
+    private boolean leavingScene = false; // Indica si ya se ha pedido la escena de introducción.
 
     int logicWidth, logicHeight; // Dimensiones lógicas de la pantalla.
 
@@ -74,8 +75,8 @@ public class Shop implements State {
         this.selectedBackgroundColor = colorEnum; // Establece el color de fondo seleccionado.
         this.sceneManager = SceneManager.getInstance(); // Obtiene la instancia del gestor de escenas.
         this.audio = SceneManager.getInstance().getEngine().getAudio(); // Inicializa el motor de audio.
-        this.closeImage = graphics.newImage("close.png"); // Carga la imagen del botón de cerrar.
-        this.coinImage = graphics.newImage("1coin.png"); // Carga la imagen de las monedas.
+        this.closeImage = graphics.newImage("close.png", CLOSESCALE); // Carga la imagen del botón de cerrar.
+        this.coinImage = graphics.newImage("1coin.png", 0.03f); // Carga la imagen de las monedas.
         this.mobile = _mobile; // Establece el dispositivo móvil asociado.
         //this.isRunningOnEmulator = this.mobile.isRunningOnEmulator();
         // Carga las fuentes necesarias.
@@ -102,11 +103,11 @@ public class Shop implements State {
     // Método para inicializar las frutas disponibles en la tienda.
     private void initializeFruits(Graphics graphics) {
         // Inicializa cada fruta con sus atributos específicos como nombre, imagen, estado de compra/selección, posición y escala.
-        fruits[0] = createFruit("apple", graphics.newImage("apple.png"), sceneManager.getCustomizationApple(), sceneManager.selectedApple, startX, extraImageY, 0.04f, 0.04f, 2);
-        fruits[1] = createFruit("pear", graphics.newImage("pear.png"), sceneManager.getCustomizationPear(), sceneManager.selectedPear, startX + fruitWidth + spacing, extraImageY, 0.025f, 0.025f, 2);
-        fruits[2] = createFruit("lemon", graphics.newImage("lemon.png"), sceneManager.getCustomizationLemon(), sceneManager.selectedLemon, startX + 2 * (fruitWidth + spacing), extraImageY, 0.03f, 0.03f, 2);
-        fruits[3] = createFruit("greyBubble", graphics.newImage("grey.png"), sceneManager.getCustomizationGrey(), sceneManager.selectedGris, startX, extraImageY + fruitHeight + spacing, 0.08f, 0.08f, 2);
-        fruits[4] = createFruit("blueberry", graphics.newImage("blueberry.png"), sceneManager.getCustomizationBlueBerry(), sceneManager.selectedBerry, startX + fruitWidth + spacing, extraImageY + fruitHeight + spacing, 0.15f, 0.15f, 2);
+        fruits[0] = createFruit("apple", graphics.newImage("apple.png", 0.04f), sceneManager.getCustomizationApple(), sceneManager.selectedApple, startX, extraImageY, 0.04f, 0.04f, 2);
+        fruits[1] = createFruit("pear", graphics.newImage("pear.png", 0.025f), sceneManager.getCustomizationPear(), sceneManager.selectedPear, startX + fruitWidth + spacing, extraImageY, 0.025f, 0.025f, 2);
+        fruits[2] = createFruit("lemon", graphics.newImage("lemon.png", 0.03f), sceneManager.getCustomizationLemon(), sceneManager.selectedLemon, startX + 2 * (fruitWidth + spacing), extraImageY, 0.03f, 0.03f, 2);
+        fruits[3] = createFruit("greyBubble", graphics.newImage("grey.png", 0.08f), sceneManager.getCustomizationGrey(), sceneManager.selectedGris, startX, extraImageY + fruitHeight + spacing, 0.08f, 0.08f, 2);
+        fruits[4] = createFruit("blueberry", graphics.newImage("blueberry.png", 0.15f), sceneManager.getCustomizationBlueBerry(), sceneManager.selectedBerry, startX + fruitWidth + spacing, extraImageY + fruitHeight + spacing, 0.15f, 0.15f, 2);
     }
 
     // Método para crear un objeto de tipo FruitStruct.
@@ -131,8 +132,10 @@ public class Shop implements State {
             alpha += 300 * deltaTime; // Incrementa la transparencia (fade-in).
             if (alpha >= 255) { // Si la transparencia alcanza el máximo:
                 alpha = 255;
-                // Cambia la escena actual a la escena de introducción.
-                sceneManager.setCurrentScene(new IntroScene(sceneManager.getEngine(), sceneManager.getMobile(), selectedBackgroundColor));
+                // Cambia a la escena de introducción en cuanto termine de cargarse.
+                if (!leavingScene) {
+                    leavingScene = sceneManager.loadSceneAsync(() -> new IntroScene(sceneManager.getEngine(), sceneManager.getMobile(), selectedBackgroundColor), () -> leavingScene = false);
+                }
             }
         } else {
             alpha -= 300 * deltaTime; // Reduce la transparencia (fade-out).
@@ -294,11 +297,11 @@ public class Shop implements State {
             }
             fruit.selected = !fruit.selected;
             switch (fruit.name) {
-                case "apple" -> sceneManager.selectedApple = fruit.selected;
-                case "pear" -> sceneManager.selectedPear = fruit.selected;
-                case "lemon" -> sceneManager.selectedLemon = fruit.selected;
-                case "greyBubble" -> sceneManager.selectedGris = fruit.selected;
-                case "blueberry" -> sceneManager.selectedBerry = fruit.selected;
+                case "apple" -> sceneManager.setSelected(SceneManager.SKIN_APPLE, fruit.selected);
+                case "pear" -> sceneManager.setSelected(SceneManager.SKIN_PEAR, fruit.selected);
+                case "lemon" -> sceneManager.setSelected(SceneManager.SKIN_LEMON, fruit.selected);
+                case "greyBubble" -> sceneManager.setSelected(SceneManager.SKIN_GRAY, fruit.selected);
+                case "blueberry" -> sceneManager.setSelected(SceneManager.SKIN_BERRY, fruit.selected);
             }
         } else {
             if (!this.isRunningOnEmulator) {
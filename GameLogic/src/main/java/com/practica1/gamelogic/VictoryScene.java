@@ -25,6 +25,7 @@ public class VictoryScene implements State {
     private Boolean touchedAd = false; // Indica si se ha tocado el anuncio de recompensa.
     private float alpha = 255; // Opacidad inicial para el efecto de fade-in.
     private boolean fadingOut = false; // Bandera para controlar el fade-out.
+    private boolean leavingScene = false; // Indica si ya se ha pedido la siguiente escena.
 
     private static final int BUTTON_ARC = 20; // Radio de los bordes redondeados del botón.
     private static final int MARGIN = 20; // Margen entre elementos.
@@ -52,23 +53,23 @@ public class VictoryScene implements State {
         isAdventure = Adventure; // Establece si es modo aventura.
         //this.isRunningOnEmulator = this.mobile.isRunningOnEmulator();
         // Carga las imágenes necesarias.
-        this.shareButtonImage = graphics.newImage("share.png");
-        this.coinImage = graphics.newImage("coin.png");
-        this.oneCoinImage = graphics.newImage("1coin.png");
+        this.shareButtonImage = graphics.newImage("share.png", 0.1f);
+        this.coinImage = graphics.newImage("coin.png", 0.15f);
+        this.oneCoinImage = graphics.newImage("1coin.png", 0.02f);
 
         // Carga las fuentes.
         rewardFont = graphics.newFont("fff.ttf", 24, true, true);
         victoryFont = graphics.newFont("blow.ttf", 95, true, true);
         scoreFont = graphics.newFont("fff.ttf", 40, false, false);
 
-        this.button = graphics.newImage("menu.png"); // Botón para volver al menú.
+        this.button = graphics.newImage("menu.png", 0.3f); // Botón para volver al menú.
 
         // Avanza el nivel si es el último jugado.
         if (sceneManager.getLastLevelPlayed() == sceneManager.getLevel()) sceneManager.addLevel(1);
 
         // Carga el sonido de monedas.
         coinSound = audio.newSound("retroCoin.wav");
-        winSound = audio.newSound("win1.wav");
+        winSound = audio.loadSoundAsync("win1.wav");
 
         // Añade monedas por ganar.
         sceneManager.addCoins(1);
@@ -90,7 +91,12 @@ public class VictoryScene implements State {
             alpha += 100 * deltaTime; // Incrementa la opacidad (fade-in).
             if (alpha >= 255) {
                 alpha = 255;
-                sceneManager.setCurrentScene(new IntroScene(sceneManager.getEngine(), mobile)); // Cambia a la escena de introducción.
+                if (!leavingScene) { // Cambia a la escena de introducción.
+                    leavingScene = sceneManager.loadSceneAsync(() -> new IntroScene(sceneManager.getEngine(), mobile), () -> {
+                        leavingScene = false;
+                        fadingOut = false; // no se reintenta en cada frame
+                    });
+                }
             }
         } else {
             alpha -= 100 * deltaTime; // Reduce la opacidad (fade-out).
@@ -149,11 +155,12 @@ public class VictoryScene implements State {
 
     @Override
     public void handleInput(List<TouchEvent> events) {
+        if (leavingScene) return; // La siguiente escena ya se está cargando.
         for (TouchEvent event : events) {
             if (event.type == TouchEvent.TouchEventType.TOUCH_DOWN) {
                 // Verifica si se tocó el botón "MENU".
                 if (isTouchOnRectangle(event.x, event.y)) {
-                    sceneManager.setCurrentScene(new IntroScene(sceneManager.getEngine(), this.mobile, this.colors));
+                    leavingScene = sceneManager.loadSceneAsync(() -> new IntroScene(sceneManager.getEngine(), this.mobile, this.colors), () -> leavingScene = false);
                 }
                 // Verifica si se tocó el botón "SIGUIENTE".
                 else if (event.x >= 90 && event.x <= (90 + 350) &&
@@ -163,7 +170,7 @@ public class VictoryScene implements State {
                         if (sceneManager.getLevel() == sceneManager.lastLevelPlayed) sceneManager.addLevel(1);
                         sceneManager.setLastLevelPlayed(sceneManager.getLastLevelPlayed() + 1);
                         sceneManager.levelOnCourse = false;
-                        sceneManager.setCurrentScene(new Grid(graphics, audio, mobile, this.colors));
+                        leavingScene = sceneManager.loadSceneAsync(() -> new Grid(graphics, audio, mobile, this.colors), () -> leavingScene = false);
                     }
                 }
                 // Verifica si se tocó el botón de compartir.
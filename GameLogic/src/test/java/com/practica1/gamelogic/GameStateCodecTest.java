@@ -0,0 +1,102 @@
+package com.practica1.gamelogic;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GameStateCodecTest {
+
+    private static GameState sample() {
+        GameState state = new GameState();
+        state.nCoins = 300; // varint de dos bytes
+        state.currentLevel = 12;
+        state.lastLevel = 11;
+        state.backgroundColor = ColorEnum.BLUE.name();
+        state.apple = true;
+        state.s_apple = true;
+        state.pear = true;
+        state.purchasedColors = new boolean[ColorEnum.values().length];
+        state.purchasedColors[ColorEnum.RED.ordinal()] = true;
+        state.bubblesToLaunch = Arrays.asList(1, 2, 3, 4, 5);
+        state.initialBoard = new int[Grid.TOTALROWS][Grid.COLUMNS];
+        state.initialBoard[0] = new int[]{1, 2, 3, 4, 5, 1, 2, 3, 4, 5};
+        state.initialBoard[1] = new int[]{0, 5, 0, 4, 0, 3, 0, 2, 0, 0};
+        state.score = 450;
+        return state;
+    }
+
+    private static GameState decode(Map<Integer, byte[]> sections) throws IOException {
+        GameState state = new GameState();
+        for (Map.Entry<Integer, byte[]> section : sections.entrySet()) {
+            GameStateCodec.decodeSection(section.getKey(), section.getValue(), state);
+        }
+        return state;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        GameState original = sample();
+        GameState state = decode(GameStateCodec.encodeSections(original));
+
+        assertEquals(300, state.nCoins);
+        assertEquals(12, state.currentLevel);
+        assertEquals(ColorEnum.BLUE.name(), state.backgroundColor);
+        assertTrue(state.apple && state.s_apple && state.pear);
+        assertFalse(state.lemon || state.s_pear);
+        assertArrayEquals(original.purchasedColors, state.purchasedColors);
+
+        // El tablero se queda sin decodificar hasta que se retoma el nivel
+        assertEquals(11, state.lastLevel);
+        assertNull(state.initialBoard);
+        assertNotNull(state.boardFields);
+
+        GameStateCodec.decodeBoard(state.boardFields, state);
+        assertEquals(original.bubblesToLaunch, state.bubblesToLaunch);
+        assertEquals(450, state.score);
+        assertEquals(Grid.TOTALROWS, state.initialBoard.length);
+        for (int r = 0; r < Grid.TOTALROWS; r++) {
+            assertArrayEquals("fila " + r, original.initialBoard[r], state.initialBoard[r]);
+        }
+    }
+
+    @Test
+    public void boardSectionIsWrittenBackUndecoded() throws IOException {
+        GameState state = decode(GameStateCodec.encodeSections(sample()));
+        byte[] board = state.boardFields;
+        assertSame(board, GameStateCodec.encodeSections(state).get(GameStateCodec.SECTION_BOARD));
+    }
+
+    @Test
+    public void withoutBubblesThereIsNothingToResume() throws IOException {
+        GameState original = sample();
+        original.bubblesToLaunch = null;
+        original.initialBoard = null;
+        GameState state = decode(GameStateCodec.encodeSections(original));
+        assertNull(state.boardFields);
+        assertEquals(0, state.lastLevel);
+    }
+
+    @Test
+    public void truncatedSectionIsRejected() {
+        Map<Integer, byte[]> sections = GameStateCodec.encodeSections(sample());
+        for (Map.Entry<Integer, byte[]> section : sections.entrySet()) {
+            byte[] data = section.getValue();
+            byte[] truncated = Arrays.copyOf(data, data.length - 1);
+            try {
+                GameStateCodec.decodeSection(section.getKey(), truncated, new GameState());
+                fail("Seccion " + section.getKey() + " truncada aceptada");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBoardIsRejected() throws IOException {
+        byte[] board = GameStateCodec.encodeSections(sample()).get(GameStateCodec.SECTION_BOARD);
+        GameStateCodec.decodeBoard(Arrays.copyOf(board, board.length - 1), new GameState());
+    }
+}
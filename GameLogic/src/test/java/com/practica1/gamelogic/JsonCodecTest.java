@@ -0,0 +1,74 @@
+package com.practica1.gamelogic;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class JsonCodecTest {
+
+    private static final String EVEN_ROW = "[1,2,3,4,5,1,2,3,4,5]";
+    private static final String ODD_ROW = "[5,4,3,2,1,5,4,3,2]";
+    private static final String PADDED_ODD_ROW = "[5,4,3,2,1,5,4,3,2,0]"; // como lo escribe Grid.getBoard
+
+    @Test
+    public void readsLevel() throws IOException {
+        LevelData level = JsonCodec.readLevel("{\"bubblesToLaunch\":[1,2,3],\"initialBoard\":["
+                + EVEN_ROW + "," + ODD_ROW + "]}", "level1.json");
+        assertArrayEquals(new int[]{1, 2, 3}, level.bubblesToLaunch);
+        assertEquals(2, level.initialBoard.length);
+        assertEquals(Grid.COLUMNS - 1, level.initialBoard[1].length);
+    }
+
+    @Test
+    public void levelWithPaddedOddRowIsRejected() {
+        assertRejected("{\"bubblesToLaunch\":[1],\"initialBoard\":[" + EVEN_ROW + "," + PADDED_ODD_ROW + "]}",
+                "la fila 1 tiene 10 columnas");
+    }
+
+    @Test
+    public void levelWithUnknownBubbleIsRejected() {
+        assertRejected("{\"bubblesToLaunch\":[1],\"initialBoard\":[[1,2,3,4,5,1,2,3,4,9]]}",
+                "$.initialBoard[0][9]");
+    }
+
+    @Test
+    public void levelWithoutBoardIsRejected() {
+        assertRejected("{\"bubblesToLaunch\":[1]}", "falta initialBoard");
+    }
+
+    @Test
+    public void legacySaveAcceptsPaddedRows() throws IOException {
+        GameState state = JsonCodec.readGameState("{\"nCoins\":25,\"currentLevel\":4,\"bubblesToLaunch\":[2,3],"
+                + "\"initialBoard\":[" + EVEN_ROW + "," + PADDED_ODD_ROW + "]}", "data.json");
+        assertEquals(25, state.nCoins);
+        assertEquals(Arrays.asList(2, 3), state.bubblesToLaunch);
+        assertEquals(2, state.initialBoard.length);
+        assertEquals(Grid.COLUMNS, state.initialBoard[1].length);
+    }
+
+    @Test
+    public void legacySaveKeepsProgressWhenTheBoardIsUnreadable() throws IOException {
+        GameState state = JsonCodec.readGameState("{\"nCoins\":25,\"currentLevel\":4,\"apple\":true,\"score\":80,"
+                + "\"bubblesToLaunch\":[2,3],\"initialBoard\":[[1,2,7]],\"purchasedColors\":[true,false]}", "data.json");
+        assertEquals(25, state.nCoins);
+        assertEquals(4, state.currentLevel);
+        assertTrue(state.apple);
+        assertTrue(state.purchasedColors[0]);
+        // Sin tablero no hay partida que retomar
+        assertNull(state.initialBoard);
+        assertNull(state.bubblesToLaunch);
+        assertEquals(0, state.score);
+    }
+
+    private static void assertRejected(String json, String message) {
+        try {
+            JsonCodec.readLevel(json, "level1.json");
+            fail("Nivel mal formado aceptado");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
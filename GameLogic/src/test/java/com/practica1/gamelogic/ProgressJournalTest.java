@@ -0,0 +1,70 @@
+package com.practica1.gamelogic;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProgressJournalTest {
+
+    @Test
+    public void coinDeltasAreZigzagEncoded() {
+        assertArrayEquals(new byte[]{1, 0}, ProgressJournal.coins(0));
+        assertArrayEquals(new byte[]{1, 2}, ProgressJournal.coins(1));
+        assertArrayEquals(new byte[]{1, 1}, ProgressJournal.coins(-1));
+        assertArrayEquals(new byte[]{1, 3}, ProgressJournal.coins(-2));
+        assertArrayEquals(new byte[]{1, (byte) 0xc7, 1}, ProgressJournal.coins(-100)); // 199 en dos bytes
+    }
+
+    @Test
+    public void coinDeltasAreAdded() throws IOException {
+        GameState state = new GameState();
+        state.nCoins = 10;
+        ProgressJournal.apply(state, ProgressJournal.coins(5));
+        ProgressJournal.apply(state, ProgressJournal.coins(-3));
+        ProgressJournal.apply(state, ProgressJournal.coins(1000));
+        assertEquals(1012, state.nCoins);
+    }
+
+    @Test
+    public void coinsNeverGoNegative() throws IOException {
+        GameState state = new GameState();
+        state.nCoins = 4;
+        ProgressJournal.apply(state, ProgressJournal.coins(-100));
+        assertEquals(0, state.nCoins);
+    }
+
+    @Test
+    public void otherRecords() throws IOException {
+        GameState state = new GameState();
+        ProgressJournal.apply(state, ProgressJournal.level(7));
+        ProgressJournal.apply(state, ProgressJournal.skinUnlocked(SceneManager.SKIN_BERRY, true));
+        ProgressJournal.apply(state, ProgressJournal.skinSelected(SceneManager.SKIN_BERRY, true));
+        ProgressJournal.apply(state, ProgressJournal.colorPurchased(ColorEnum.GREEN.ordinal(), true));
+        ProgressJournal.apply(state, ProgressJournal.background(ColorEnum.GREEN));
+        ProgressJournal.apply(state, ProgressJournal.board(7, Arrays.asList(2, 3), new int[][]{{1, 1}}, 40));
+
+        assertEquals(7, state.currentLevel);
+        assertTrue(state.berry && state.s_berry);
+        assertTrue(state.purchasedColors[ColorEnum.GREEN.ordinal()]);
+        assertEquals(ColorEnum.GREEN.name(), state.backgroundColor);
+        assertEquals(7, state.lastLevel);
+        assertNotNull(state.boardFields);
+    }
+
+    @Test
+    public void unknownRecordsAreIgnored() throws IOException {
+        GameState state = new GameState();
+        state.nCoins = 3;
+        ProgressJournal.apply(state, new byte[]{99, 1, 2});
+        assertEquals(3, state.nCoins);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedRecordIsRejected() throws IOException {
+        byte[] record = ProgressJournal.coins(-100);
+        ProgressJournal.apply(new GameState(), Arrays.copyOf(record, record.length - 1));
+    }
+}
@@ -17,14 +17,12 @@ import com.practica1.androidengine.AndroidEngine;
 import com.practica1.androidengine.AndroidMobile;
 import com.practica1.engine.File;
 import com.practica1.engine.Mobile;
+import com.practica1.engine.SaveStore;
 import com.practica1.gamelogic.SceneManager;
 
-import org.json.JSONObject;
-
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
@@ -44,7 +42,7 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
     private AndroidEngine engine; // Motor del juego
     private Mobile mobile; // Gestión de lógica específica del dispositivo
     private AdView adView; // Vista para mostrar anuncios publicitarios
-    private File file; // Archivo para guardar datos
+    private static final String SAVE_PATH = "data.json"; // Guardado del primer perfil (SceneManager.profilePath)
     private SensorManager sensorManager;
     private Sensor proximitySensor;
     private boolean isUserClose = false; // Para controlar si el usuario sigue cerca
@@ -71,31 +69,10 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
         engine = new AndroidEngine(renderView, this);
         mobile = new AndroidMobile(this, renderView, adView);
    
-        // Leer JSON guardado
-        file = engine.getInternalFile("data.json");
-        String savedJson = file.getContent();
-        
-        if (savedJson == null) {
-            // Generar un nuevo JSON si no existe
-            String newJson = generateJson();
-            file.setContent(newJson);
-
-            // Calcular HMAC y SHA-256 y guardar
-            String jsonHash = computeSha256(newJson);
-            saveHashToFile(jsonHash); // Guardar el hash
-            Log.d("JsonStatus", "Generated and saved new JSON with its hash.");
-        } else {
-            // Verificar integridad del JSON
-            String savedHash = readHashFromFile(); // Leer hash guardado
-            String currentHash = computeSha256(savedJson); // Calcular hash actual
-
-            if (!currentHash.equals(savedHash)) {
-                // Si el hash no coincide, es porque el archivo fue modificado manualmente
-                Toast.makeText(this, "JSON modificado, reseteando datos...", Toast.LENGTH_LONG).show();
-                resetAppData(); // Resetear datos si no coinciden
-                finish();
-                return;
-            }
+        // Comprobar el guardado de cada perfil: cada sección de data.json (data.json.1, ...) lleva su
+        // etiqueta y el .bak es la última copia buena, de la que SceneManager recupera las secciones dañadas
+        for (int profile = 0; profile < SceneManager.PROFILES; profile++) {
+            checkSave(profile); // cada perfil tiene su progreso: uno dañado no toca a los demás
         }
         // Inicializar el sensor de proximidad
         sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
@@ -106,34 +83,52 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
             }
         }
         // Inicializar lógica del juego
-        SceneManager.getInstance().Init(engine, mobile, 500, 1000, "data.json");
+        SceneManager.getInstance().Init(engine, mobile, 500, 1000, SAVE_PATH);
         if (getIntent().getBooleanExtra("NOTIFICATION_REWARD", false)) {
             rewardUserFromNotification();
         }
     }
 
-    private String generateJson() {
-        try {
-            JSONObject jsonObject = new JSONObject();
-            jsonObject.put("name", "Dorjee");
-            jsonObject.put("id", 12345);
-            jsonObject.put("timestamp", System.currentTimeMillis());
-            return jsonObject.toString();
-        } catch (Exception e) {
-            Log.e("JsonGenerate", "Error generating JSON", e);
-            return null;
+    // Comprueba el guardado de un perfil; si se ha modificado a mano se borra solo ese perfil
+    private void checkSave(int profile) {
+        String path = SceneManager.profilePath(SAVE_PATH, profile);
+        File save = engine.getInternalFile(path);
+        SaveStore saveStore = new SaveStore(save, engine.getInternalFile(path + ".bak"), null,
+                engine.getJobs(), engine.getSaveKey());
+
+        switch (saveStore.check()) {
+            case MISSING:
+                // Primera ejecución: se empieza con el progreso por defecto y se guarda al salir
+                Log.d("JsonStatus", "No save found for profile " + profile + ", starting with default progress.");
+                break;
+            case LEGACY: {
+                // Guardado de una versión anterior: el hash está en hash_file.txt. Entonces solo había
+                // un perfil, así que en los demás un JSON no lo ha escrito el juego
+                String savedHash = (profile == 0) ? readHashFromFile() : null; // Leer hash guardado
+                String currentHash = computeSha256(save.getContent()); // Calcular hash actual
+                if (!currentHash.equals(savedHash)) {
+                    onSaveTampered(path);
+                }
+                break;
+            }
+            case RECOVERED:
+                // Solo se pierde lo que estaba dañado: se toma de la copia o se deja por defecto
+                Toast.makeText(this, "Guardado dañado, se ha recuperado la última copia buena", Toast.LENGTH_LONG).show();
+                break;
+            case CORRUPTED:
+                // Ninguna etiqueta coincide ni en el guardado ni en la copia: se ha modificado a mano
+                onSaveTampered(path);
+                break;
+            case VALID:
+                if (profile == 0) deleteFile("hash_file.txt"); // Ya no se usa
+                break;
         }
     }
 
-    private void saveHashToFile(String hash) {
-        try {
-            FileOutputStream fos = openFileOutput("hash_file.txt", Context.MODE_PRIVATE);
-            fos.write(hash.getBytes());
-            fos.close();
-            Log.d("HashCheck", "Hash saved to file.");
-        } catch (IOException e) {
-            Log.e("HashCheck", "Error saving hash to file", e);
-        }
+    // Sin nada que recuperar: se borra el guardado de ese perfil y empieza con el progreso por defecto
+    private void onSaveTampered(String path) {
+        Toast.makeText(this, "JSON modificado, reseteando datos...", Toast.LENGTH_LONG).show();
+        resetProfileData(path); // Resetear datos si no coinciden
     }
 
     private String readHashFromFile() {
@@ -157,31 +152,26 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
         }
     }
 
-    private void resetAppData() {
-        deleteFile("data.json");
-        deleteFile("hash_file.txt");
-        Log.d("AppReset", "Application data reset successfully.");
+    // Borra el guardado de un perfil con su copia y su diario; los demás perfiles no se tocan
+    private void resetProfileData(String path) {
+        deleteFile(path);
+        deleteFile(path + ".bak");
+        deleteFile(path + ".journal");
+        if (path.equals(SAVE_PATH)) deleteFile("hash_file.txt");
+        Log.d("AppReset", "Save " + path + " reset successfully.");
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         engine.pause();
+        SceneManager.getInstance().onPause(); // El bucle ya está parado
 
         this.mobile.scheduleNotificationWithWorkManager();
         //Toast.makeText(this, "¡PROGRESO GUARDADO!", Toast.LENGTH_LONG).show();
-        // Guardar estado actual del JSON
-        SceneManager.getInstance().saveFile("data.json");
-
-        // Recalcular el hash después de guardar
-        String currentContent = file.getContent();
-        if (currentContent != null) {
-            String newHash = computeSha256(currentContent); // Calcular SHA-256 del nuevo contenido
-            saveHashToFile(newHash); // Guardar el nuevo hash
-            Log.d("HashUpdate", "Updated hash saved after game progress.");
-        } else {
-            Log.e("HashUpdate", "Failed to update hash because file content is null.");
-        }
+        // Guardar el progreso: el bucle está parado, así que la copia del estado se hace aquí
+        // y la escritura (datos y hash en un solo archivo) en segundo plano
+        SceneManager.getInstance().requestSave();
         // Desregistrar el listener del sensor
         if (sensorManager != null) {
             sensorManager.unregisterListener(this);
@@ -206,6 +196,7 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
     @Override
     protected void onResume() {
         super.onResume();
+        SceneManager.getInstance().onResume(); // Antes de volver a arrancar el bucle
         engine.resume();
         checkNotificationPermission();
         // Registrar el listener del sensor de proximidad
@@ -218,12 +209,14 @@ public class MainActivity extends AppCompatActivity  implements SensorEventListe
     protected void onDestroy() {
         super.onDestroy();
         this.mobile.unregisterSensorListener();
+        engine.onDestroy(); // Para los hilos de trabajo del motor
     }
 
     @Override
     protected void onStop() {
         super.onStop();
         engine.onStop();
+        SceneManager.getInstance().flushSave(500); // Que el guardado de onPause llegue al disco
     }
 
     @Override
@@ -0,0 +1,27 @@
+package com.practica1.assets;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+
+/**
+ * Configuración del bloque assetPipeline { } de un módulo.
+ */
+public abstract class AssetPipelineExtension {
+
+    // Carpeta de assets tal y como se editan
+    public abstract DirectoryProperty getSource();
+
+    // Carpeta con los assets procesados (por defecto build/processedAssets)
+    public abstract DirectoryProperty getOutputDir();
+
+    // Lado mayor, en unidades lógicas, con el que se dibuja como mucho cada sprite ("apple.png" -> 91)
+    public abstract MapProperty<String, Integer> getSpriteSizes();
+
+    // Píxeles por unidad lógica en la pantalla más grande que se soporta
+    public abstract Property<Float> getMaxRenderScale();
+
+    // Extensiones que usa el juego en ejecución; el resto (.psd, notas...) no se empaqueta
+    public abstract SetProperty<String> getRuntimeExtensions();
+}
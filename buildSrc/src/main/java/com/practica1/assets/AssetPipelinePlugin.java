@@ -0,0 +1,37 @@
+package com.practica1.assets;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+import java.util.Arrays;
+
+/**
+ * Plugin de procesado de assets. Registra la tarea processGameAssets, que genera a partir de la
+ * carpeta de assets de autor una carpeta lista para empaquetar:
+ * - sprites reducidos a su tamaño máximo en pantalla,
+ * - sin archivos que el juego no usa en ejecución (.psd...),
+ * - JSON compactados y en sintaxis estricta,
+ * - y un manifiesto (assets.manifest) con el tamaño, el hash y el tamaño original de cada asset.
+ */
+public class AssetPipelinePlugin implements Plugin<Project> {
+
+    public static final String TASK_NAME = "processGameAssets";
+
+    @Override
+    public void apply(Project project) {
+        AssetPipelineExtension extension = project.getExtensions().create("assetPipeline", AssetPipelineExtension.class);
+        extension.getOutputDir().convention(project.getLayout().getBuildDirectory().dir("processedAssets"));
+        extension.getMaxRenderScale().convention(3.0f);
+        extension.getRuntimeExtensions().convention(Arrays.asList("png", "jpg", "jpeg", "wav", "ogg", "ttf", "otf", "json"));
+
+        project.getTasks().register(TASK_NAME, ProcessAssetsTask.class, task -> {
+            task.setGroup("build");
+            task.setDescription("Reescala sprites, compacta JSON y genera el manifiesto de assets");
+            task.getSource().set(extension.getSource());
+            task.getOutputDir().set(extension.getOutputDir());
+            task.getSpriteSizes().set(extension.getSpriteSizes());
+            task.getMaxRenderScale().set(extension.getMaxRenderScale());
+            task.getRuntimeExtensions().set(extension.getRuntimeExtensions());
+        });
+    }
+}
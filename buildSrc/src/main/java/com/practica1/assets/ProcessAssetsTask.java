@@ -0,0 +1,229 @@
+package com.practica1.assets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Genera la carpeta de assets empaquetable a partir de la de autor (ver AssetPipelinePlugin).
+ * El manifiesto sigue el formato que lee com.practica1.engine.AssetManifest.
+ */
+public abstract class ProcessAssetsTask extends DefaultTask {
+
+    public static final String MANIFEST = "assets.manifest";
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getSource();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    @Input
+    public abstract MapProperty<String, Integer> getSpriteSizes();
+
+    @Input
+    public abstract Property<Float> getMaxRenderScale();
+
+    @Input
+    public abstract SetProperty<String> getRuntimeExtensions();
+
+    @TaskAction
+    public void process() throws IOException {
+        Path source = getSource().get().getAsFile().toPath();
+        Path output = getOutputDir().get().getAsFile().toPath();
+        Map<String, Integer> spriteSizes = getSpriteSizes().get();
+        float renderScale = getMaxRenderScale().get();
+        Set<String> extensions = getRuntimeExtensions().get();
+
+        deleteContents(output);
+
+        List<String> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(source)) {
+            files.filter(Files::isRegularFile)
+                    .forEach(p -> paths.add(source.relativize(p).toString().replace('\\', '/')));
+        }
+        Collections.sort(paths);
+
+        long inputBytes = 0, outputBytes = 0;
+        StringBuilder manifest = new StringBuilder("# ruta\tbytes\tsha256\tancho original\talto original\n");
+        for (String path : paths) {
+            Path in = source.resolve(path);
+            String extension = extension(path);
+            if (!extensions.contains(extension)) {
+                getLogger().lifecycle("Se descarta " + path + " (no se usa en ejecucion)");
+                continue;
+            }
+            Path out = output.resolve(path);
+            Files.createDirectories(out.getParent());
+
+            int[] originalSize = {0, 0};
+            if (isImage(extension)) {
+                originalSize = processImage(in, out, extension, spriteSizes.get(fileName(path)), renderScale);
+            } else if (extension.equals("json")) {
+                compactJson(in, out);
+            } else {
+                Files.copy(in, out);
+            }
+
+            byte[] data = Files.readAllBytes(out);
+            inputBytes += Files.size(in);
+            outputBytes += data.length;
+            manifest.append(path).append('\t').append(data.length).append('\t').append(sha256(data))
+                    .append('\t').append(originalSize[0]).append('\t').append(originalSize[1]).append('\n');
+        }
+        Files.write(output.resolve(MANIFEST), manifest.toString().getBytes(StandardCharsets.UTF_8));
+        getLogger().lifecycle("Assets procesados: " + inputBytes + " -> " + outputBytes + " bytes");
+    }
+
+    // -- SPRITES --
+
+    // Reduce el sprite si su tamaño máximo en pantalla es menor que el archivo; devuelve el tamaño original
+    private int[] processImage(Path in, Path out, String extension, Integer logicalSize, float renderScale) throws IOException {
+        int[] size = readSize(in);
+        int longest = Math.max(size[0], size[1]);
+        int target = (logicalSize == null) ? 0 : (int) Math.ceil(logicalSize * renderScale);
+        if (target <= 0 || longest <= target) {
+            Files.copy(in, out); // sin tamaño configurado o ya es bastante pequeño
+            return size;
+        }
+
+        BufferedImage image = ImageIO.read(in.toFile());
+        if (image == null) throw new GradleException("No se puede leer la imagen " + in);
+        double factor = (double) target / longest;
+        int width = Math.max(1, (int) Math.round(size[0] * factor));
+        int height = Math.max(1, (int) Math.round(size[1] * factor));
+        boolean alpha = image.getColorModel().hasAlpha() && !extension.startsWith("jp");
+        BufferedImage scaled = downscale(image, width, height, alpha);
+        String format = extension.startsWith("jp") ? "jpg" : "png";
+        if (!ImageIO.write(scaled, format, out.toFile())) {
+            throw new GradleException("No hay escritor de imagenes " + format + " para " + out);
+        }
+        getLogger().info(in.getFileName() + ": " + size[0] + "x" + size[1] + " -> " + width + "x" + height);
+        return size;
+    }
+
+    // Dimensiones leyendo solo la cabecera
+    private static int[] readSize(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new GradleException("Formato de imagen no soportado: " + file);
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Reducción por mitades y un último paso bicúbico, para no perder detalle al reducir mucho
+    private static BufferedImage downscale(BufferedImage image, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int w = image.getWidth(), h = image.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    // -- JSON --
+
+    // Reescribe el JSON sin espacios y en sintaxis estricta (los literales 0x de style.json pasan a cadenas)
+    private static void compactJson(Path in, Path out) throws IOException {
+        String text = new String(Files.readAllBytes(in), StandardCharsets.UTF_8);
+        JsonElement element;
+        try (Reader reader = new StringReader(text)) {
+            element = JsonParser.parseReader(new JsonReader(reader)); // parseReader(JsonReader) es permisivo
+        } catch (RuntimeException e) {
+            throw new GradleException("JSON mal formado en " + in + ": " + e.getMessage(), e);
+        }
+        Files.write(out, new Gson().toJson(element).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // -- UTILIDADES --
+
+    private static boolean isImage(String extension) {
+        return extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg");
+    }
+
+    private static String extension(String path) {
+        int dot = path.lastIndexOf('.');
+        return (dot < 0) ? "" : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String fileName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Vacía la carpeta de salida para que no queden assets borrados o descartados de ejecuciones anteriores
+    private static void deleteContents(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> all = new ArrayList<>();
+            files.filter(p -> !p.equals(dir)).forEach(all::add);
+            all.sort(Comparator.reverseOrder()); // hijos antes que carpetas
+            for (Path p : all) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.practica1.desktopengine;
+
+import com.practica1.engine.FrameProfiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mide los bytes reservados por el hilo de renderizado en cada fase del frame, usando el contador
+ * por hilo de la JVM (com.sun.management.ThreadMXBean). Agrupa los resultados por escena para
+ * ver qué escena genera basura cada frame.
+ *
+ * En modo comprobación (pensado para tests) apunta como violación cada frame que, pasado el
+ * calentamiento, reserve más bytes de los permitidos; se consultan con getViolations() desde
+ * cualquier hilo sin parar el bucle.
+ */
+public class DesktopAllocationTracker {
+
+    private static final int PHASES = FrameProfiler.Phase.values().length;
+    private static final int MAX_VIOLATIONS = 100; // las siguientes solo se cuentan
+
+    // Acumulados de una escena
+    public static class SceneStats {
+        public final String scene;
+        public long frames;
+        public long totalBytes;
+        public long maxFrameBytes;
+        public final long[] phaseBytes = new long[PHASES];
+
+        SceneStats(String scene) {
+            this.scene = scene;
+        }
+
+        public long getBytesPerFrame() {
+            return frames == 0 ? 0 : totalBytes / frames;
+        }
+    }
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final boolean supported;
+    private final Map<String, SceneStats> scenes = new LinkedHashMap<>();
+
+    // Frame en curso
+    private SceneStats currentScene;
+    private final long[] current = new long[PHASES];
+    private long frameStart, lastMark;
+
+    // Modo comprobación
+    private volatile boolean checkSteadyState = false;
+    private volatile int warmupFrames;
+    private volatile long maxBytesPerFrame;
+    private final List<String> violations = new ArrayList<>();
+    private long violationCount;
+
+    public DesktopAllocationTracker() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+            supported = true;
+        } else {
+            threadBean = null;
+            supported = false; // la JVM no mide reservas por hilo: ver isSupported()
+        }
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Activa el modo comprobación: a partir de `warmupFrames` frames dentro de una misma escena,
+     * cada frame que reserve más de `maxBytesPerFrame` bytes se apunta como violación.
+     */
+    public void checkSteadyState(int warmupFrames, long maxBytesPerFrame) {
+        this.warmupFrames = warmupFrames;
+        this.maxBytesPerFrame = maxBytesPerFrame;
+        this.checkSteadyState = true;
+    }
+
+    public void disableChecks() {
+        this.checkSteadyState = false;
+    }
+
+    // -- LLAMADAS DESDE EL BUCLE (mismo hilo que mide) --
+
+    public void beginFrame(String sceneName) {
+        if (!supported) return;
+        currentScene = scenes.get(sceneName);
+        if (currentScene == null) {
+            currentScene = new SceneStats(sceneName);
+            scenes.put(sceneName, currentScene);
+        }
+        for (int i = 0; i < PHASES; i++) current[i] = 0;
+        frameStart = threadBean.getCurrentThreadAllocatedBytes();
+        lastMark = frameStart;
+    }
+
+    public void mark(FrameProfiler.Phase phase) {
+        if (!supported || currentScene == null) return;
+        long now = threadBean.getCurrentThreadAllocatedBytes();
+        current[phase.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    public void endFrame() {
+        if (!supported || currentScene == null) return;
+        long frameBytes = threadBean.getCurrentThreadAllocatedBytes() - frameStart;
+        current[FrameProfiler.Phase.FRAME.ordinal()] = frameBytes;
+
+        SceneStats stats = currentScene;
+        synchronized (this) {
+            stats.frames++;
+            stats.totalBytes += frameBytes;
+            stats.maxFrameBytes = Math.max(stats.maxFrameBytes, frameBytes);
+            for (int i = 0; i < PHASES; i++) stats.phaseBytes[i] += current[i];
+        }
+
+        if (checkSteadyState && stats.frames > warmupFrames && frameBytes > maxBytesPerFrame) {
+            // No se lanza nada: una excepción en el hilo de renderizado pararía el bucle
+            String violation = String.format(Locale.ROOT,
+                    "La escena %s ha reservado %d bytes en el frame %d (max %d): %s",
+                    stats.scene, frameBytes, stats.frames, maxBytesPerFrame, describe(current));
+            synchronized (this) {
+                violationCount++;
+                if (violations.size() < MAX_VIOLATIONS) violations.add(violation);
+            }
+        }
+        currentScene = null;
+    }
+
+    // -- CONSULTAS --
+
+    public synchronized long getBytesPerFrame(String sceneName) {
+        SceneStats stats = scenes.get(sceneName);
+        return stats == null ? 0 : stats.getBytesPerFrame();
+    }
+
+    // Frames que han superado el límite del modo comprobación (se guardan los primeros MAX_VIOLATIONS)
+    public synchronized List<String> getViolations() {
+        return new ArrayList<>(violations);
+    }
+
+    public synchronized long getViolationCount() {
+        return violationCount;
+    }
+
+    public synchronized void reset() {
+        scenes.clear();
+        violations.clear();
+        violationCount = 0;
+    }
+
+    // Informe de bytes/frame por escena y por fase
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder();
+        for (SceneStats stats : scenes.values()) {
+            sb.append(String.format(Locale.ROOT, "%s: frames=%d bytes/frame=%d max=%d%n",
+                    stats.scene, stats.frames, stats.getBytesPerFrame(), stats.maxFrameBytes));
+            for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+                if (phase == FrameProfiler.Phase.FRAME) continue;
+                long perFrame = stats.frames == 0 ? 0 : stats.phaseBytes[phase.ordinal()] / stats.frames;
+                sb.append(String.format(Locale.ROOT, "    %-13s %d%n", phase.name(), perFrame));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String describe(long[] phases) {
+        StringBuilder sb = new StringBuilder();
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            if (phase == FrameProfiler.Phase.FRAME) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(phase.name()).append('=').append(phases[phase.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.practica1.desktopengine;
+
+import com.practica1.engine.JobSystem;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Recarga en caliente durante el desarrollo: vigila con un WatchService una carpeta de los assets
+ * sueltos (y sus subcarpetas, también las que se creen después) y avisa de las rutas que cambian.
+ * Los editores guardan un archivo en varios pasos (temporal, renombrado, varias escrituras), así que
+ * los eventos se agrupan hasta que pasa un rato sin ninguno y se avisa una sola vez, en el hilo del
+ * juego. Con el paquete de assets no hay nada que vigilar.
+ */
+public class DesktopAssetWatcher implements AutoCloseable {
+
+    // Recibe las rutas relativas a los assets ("levels/world1/level3.json") que han cambiado
+    public interface Listener {
+        void assetsChanged(Set<String> paths);
+    }
+
+    private static final long QUIET_MILLIS = 200; // tiempo sin eventos para dar por terminado un guardado
+
+    private final Path root; // carpeta de assets sueltos
+    private final JobSystem jobs;
+    private final Listener listener;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    public DesktopAssetWatcher(Path root, String dir, JobSystem jobs, Listener listener) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.jobs = jobs;
+        this.listener = listener;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        try {
+            registerTree(this.root.resolve(dir));
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        thread = new Thread(this::watch, "DesktopAssetWatcher");
+        thread.setDaemon(true); // no impide que se cierre la aplicación
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close(); // despierta al hilo con ClosedWatchServiceException
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Registra la carpeta y todas sus subcarpetas
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> dirs = Files.walk(dir)) {
+            for (Path d : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                d.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<String> changed = new TreeSet<>();
+                WatchKey key = watcher.take();
+                // Se siguen recogiendo eventos hasta que el guardado termina
+                while (key != null) {
+                    collect(key, changed);
+                    key = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty()) {
+                    jobs.runOnGameThread(() -> listener.assetsChanged(changed));
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // cerrado
+        }
+    }
+
+    private void collect(WatchKey key, Set<String> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            Path file = dir.resolve((Path) event.context());
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp") || name.endsWith("~") || name.startsWith(".")) continue; // temporales de los editores
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                try {
+                    registerTree(file); // carpeta nueva (un mundo nuevo): también se vigila
+                } catch (IOException e) {
+                    System.out.println("No se puede vigilar " + file + ": " + e.getMessage());
+                }
+            }
+            changed.add(root.relativize(file).toString().replace(java.io.File.separatorChar, '/'));
+        }
+        key.reset();
+    }
+}
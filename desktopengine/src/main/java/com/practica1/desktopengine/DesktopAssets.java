@@ -0,0 +1,143 @@
+package com.practica1.desktopengine;
+
+import com.practica1.engine.AssetManifest;
+import com.practica1.engine.AssetPack;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Acceso a los assets del escritorio por ruta relativa ("sprites/close.png").
+ * Si existe data/assets.pack (generado con la tarea packAssets) se lee todo de ese archivo mapeado
+ * en memoria; si no, se leen los archivos sueltos, que son los mismos assets que usa Android
+ * (AndroidEngine/src/main/assets, relativo a la raíz del proyecto).
+ * El paquete se hace con los assets procesados, que traen manifiesto (tamaño original de los
+ * sprites reducidos); con los archivos sueltos el manifiesto está vacío.
+ */
+public class DesktopAssets {
+
+    public static final String ASSETS_DIR = "AndroidEngine/src/main/assets";
+    public static final String PACK_FILE = "data/assets.pack";
+    // -Dpractica1.assets=loose ignora el paquete (desarrollo: los cambios en los assets se ven al momento)
+    public static final String MODE_PROPERTY = "practica1.assets";
+
+    private final Path root; // carpeta de archivos sueltos
+    private final AssetPack pack; // null si no hay paquete
+    private final AssetManifest manifest;
+
+    public DesktopAssets(Path root, AssetPack pack) {
+        this.root = root;
+        this.pack = pack;
+        this.manifest = readManifest();
+    }
+
+    // Usa el paquete si existe y es valido; si no (o si se piden los sueltos), la carpeta
+    public static DesktopAssets openDefault() {
+        Path packFile = Paths.get(PACK_FILE);
+        AssetPack pack = null;
+        if (!"loose".equals(System.getProperty(MODE_PROPERTY)) && Files.isRegularFile(packFile)) {
+            try {
+                pack = AssetPack.open(packFile);
+            } catch (IOException e) {
+                System.out.println("No se pudo abrir " + packFile + ", se usan los archivos sueltos: " + e.getMessage());
+            }
+        }
+        return new DesktopAssets(Paths.get(ASSETS_DIR), pack);
+    }
+
+    public boolean isPacked() {
+        return pack != null;
+    }
+
+    // Flujo sobre el asset (del paquete sin copias, o del archivo suelto con buffer)
+    public InputStream open(String path) throws IOException {
+        if (pack != null) {
+            InputStream is = pack.open(path);
+            if (is == null) throw new FileNotFoundException("No existe el asset " + path);
+            return is;
+        }
+        return new BufferedInputStream(new FileInputStream(root.resolve(path).toFile()));
+    }
+
+    // Tamaño en bytes del asset (-1 si no existe)
+    public long size(String path) {
+        if (pack != null) {
+            ByteBuffer buffer = pack.slice(path);
+            return (buffer == null) ? -1 : buffer.remaining();
+        }
+        try {
+            return Files.size(root.resolve(path));
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Contenido del asset sin copiarlo: vista del paquete o mapeo del archivo suelto
+    public ByteBuffer map(String path) throws IOException {
+        if (pack != null) {
+            ByteBuffer buffer = pack.slice(path);
+            if (buffer == null) throw new FileNotFoundException("No existe el asset " + path);
+            return buffer;
+        }
+        try (FileChannel channel = FileChannel.open(root.resolve(path), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // sigue vivo al cerrar el canal
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("No existe el asset " + path);
+        }
+    }
+
+    /* Copia del contenido del asset. Los archivos sueltos se leen sin mapearlos: un mapeo deja el
+    archivo bloqueado en Windows hasta que lo recoge el GC y el editor no podría guardarlo. */
+    public byte[] readBytes(String path) throws IOException {
+        if (pack != null) {
+            ByteBuffer buffer = map(path);
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(data);
+            return data;
+        }
+        try {
+            return Files.readAllBytes(root.resolve(path));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("No existe el asset " + path);
+        }
+    }
+
+    public boolean exists(String path) {
+        return (pack != null) ? pack.contains(path) : Files.isRegularFile(root.resolve(path));
+    }
+
+    // Contenido de una carpeta de assets (null si no existe)
+    public String[] list(String dir) {
+        if (pack != null) return pack.list(dir);
+        return root.resolve(dir).toFile().list();
+    }
+
+    public AssetManifest getManifest() {
+        return manifest;
+    }
+
+    private AssetManifest readManifest() {
+        if (!exists(AssetManifest.FILE)) return AssetManifest.empty();
+        try (InputStream is = open(AssetManifest.FILE)) {
+            return AssetManifest.read(is);
+        } catch (IOException e) {
+            System.out.println("Manifiesto de assets ilegible, se ignora: " + e.getMessage());
+            return AssetManifest.empty();
+        }
+    }
+
+    // Ruta del archivo suelto (para vigilar cambios durante el desarrollo)
+    public Path getRoot() {
+        return root;
+    }
+}
@@ -1,33 +1,69 @@
 package com.practica1.desktopengine;
 
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Audio;
+import com.practica1.engine.ResourceManager;
 import com.practica1.engine.Sound;
+import com.practica1.engine.SoundHandle;
 
-import java.io.File;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.FloatControl;
 
 public class DesktopAudio implements Audio {
-    String root = "data/assets/sounds/";
+    String root = "sounds/";
+    private final ResourceManager resources;
+    private final DesktopAssets assets;
+    private final AsyncLoader loader;
+
+    public DesktopAudio(ResourceManager resources, DesktopAssets assets, AsyncLoader loader) {
+        this.resources = resources;
+        this.assets = assets;
+        this.loader = loader;
+    }
 
     @Override
     public Sound newSound(String file) {
+        Sound sound = resources.acquire("sound:" + file, () -> loadSound(file),
+                DesktopSound::getByteSize,
+                s -> s.getSoundClip().close(),
+                DesktopSound::isPlaying); // un sonido que sigue sonando tras cambiar de escena no se corta
+        return (sound != null) ? sound : new DesktopSound(null);
+    }
+
+    // Carga en segundo plano; el handle no suena hasta que el clip esta abierto
+    @Override
+    public SoundHandle loadSoundAsync(String file) {
+        return loader.load(new SoundHandle(), () -> {
+            Sound sound = newSound(file);
+            return (((DesktopSound) sound).getSoundClip() != null) ? sound : null;
+        });
+    }
+
+    // sonido real detras de un handle (null si aun no esta listo)
+    private static Sound unwrap(Sound s) {
+        return (s instanceof SoundHandle) ? ((SoundHandle) s).get() : s;
+    }
+
+    // Abre el clip del archivo; null si no se puede cargar
+    private DesktopSound loadSound(String file) {
         Clip clip = null;
         try {
             clip = AudioSystem.getClip();
-            final AudioInputStream ais = AudioSystem.getAudioInputStream(new File(root + file));
+            final AudioInputStream ais = AudioSystem.getAudioInputStream(assets.open(root + file));
             clip.open(ais);
             ais.close();
         } catch (Exception e) {
             e.printStackTrace();
+            return null;
         }
         return new DesktopSound(clip);
     }
 
     @Override
     public void playSound(Sound s, boolean loop) {
+        s = unwrap(s);
         if (s instanceof DesktopSound) {
             Clip clip = ((DesktopSound) s).getSoundClip();
             if (clip != null) {
@@ -35,16 +71,19 @@ public class DesktopAudio implements Audio {
                 clip.setFramePosition(0);
                 clip.loop(loop ? Clip.LOOP_CONTINUOUSLY : 0);
                 clip.start();
+                ((DesktopSound) s).played(loop);
             }
         }
     }
 
     @Override
     public void stopSound(Sound s) {
+        s = unwrap(s);
         if (s instanceof DesktopSound) {
             Clip clip = ((DesktopSound) s).getSoundClip();
             if (clip != null) {
                 clip.stop();
+                ((DesktopSound) s).stopped();
             }
         }
     }
@@ -54,12 +93,12 @@ public class DesktopAudio implements Audio {
         // Implementar método para silenciar todos los sonidos si es necesario
     }
 
-    @Override
     public void unmute() {
         // Implementar método para des-silenciar todos los sonidos si es necesario
     }
 
     public void setVolume(Sound s, float volume) {
+        s = unwrap(s);
         if (s instanceof DesktopSound) {
             Clip clip = ((DesktopSound) s).getSoundClip();
             if (clip != null) {
@@ -1,13 +1,28 @@
 package com.practica1.desktopengine;
 
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Audio;
 import com.practica1.engine.Engine;
+import com.practica1.engine.File;
+import com.practica1.engine.FrameProfiler;
 import com.practica1.engine.Graphics;
 import com.practica1.engine.Input;
+import com.practica1.engine.JobSystem;
+import com.practica1.engine.ResourceManager;
 import com.practica1.engine.State;
+import com.practica1.engine.TaskScheduler;
 import com.practica1.engine.TouchEvent;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 import javax.swing.JFrame;
 
 public class DesktopEngine implements Runnable, Engine {
@@ -18,15 +33,27 @@ public class DesktopEngine implements Runnable, Engine {
     private DesktopAudio audio;
     private Thread renderThread;
     private volatile boolean running;
-    private State state;
+    private volatile State state;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final TaskScheduler scheduler = new TaskScheduler();
+    private final JobSystem jobs = createJobSystem();
+    private final ResourceManager resources = new ResourceManager();
+    private final DesktopAssets assets = DesktopAssets.openDefault(); // data/assets.pack o los assets sueltos
+    private final AsyncLoader loader = new AsyncLoader(jobs, resources); // cargas en segundo plano
+    private final Path dataDir = Paths.get(System.getProperty("user.home"), ".practica1"); // guardados del usuario
+    private final List<DesktopAssetWatcher> watchers = new ArrayList<>(); // recarga en caliente de assets
+    private SecretKey saveKey; // clave de los guardados (se crea al pedirla)
+    private volatile DesktopAllocationTracker allocationTracker; // null si no se miden reservas
     private static final int TARGET_FPS = 60;
     private static final double TIME_PER_FRAME = 1_000_000_000.0 / TARGET_FPS;
+    private static final long TASK_MARGIN = 1_000_000L; // margen para que el sleep no se pase del frame
+    private static final String SAVE_KEY_FILE = "save.key";
 
     public DesktopEngine(JFrame myView) {
         this.myView = myView;
-        this.gr = new DesktopGraphics(myView);
+        this.gr = new DesktopGraphics(myView, resources, assets, loader);
         this.input = new DesktopInput();
-        this.audio = new DesktopAudio();  // Inicializar el sistema de audio
+        this.audio = new DesktopAudio(resources, assets, loader);  // Inicializar el sistema de audio
         myView.addMouseListener(input);
         myView.addMouseMotionListener(input);
     }
@@ -50,26 +77,49 @@ public class DesktopEngine implements Runnable, Engine {
 
             double elapsedTime = (double) nanoElapsedTime / 1.0E9;
 
-            if (this.state != null) {
+            profiler.beginFrame();
+            jobs.runCompletions(); // callbacks de los trabajos de fondo, en este hilo
+            markPhase(FrameProfiler.Phase.JOBS);
+            // La escena se lee una vez por frame para que un cambio desde otro hilo sea atómico
+            State current = this.state;
+            if (allocationTracker != null && current != null) {
+                allocationTracker.beginFrame(current.getClass().getSimpleName());
+            }
+            if (current != null) {
                 List<TouchEvent> events = this.input.getTouchEvents();
                 for (TouchEvent e : events) {
-                    realToLogic(e);
+                    realToLogic(e, current);
                 }
+                markPhase(FrameProfiler.Phase.INPUT);
 
-                state.handleInput(events);
-                state.update(elapsedTime);
+                current.handleInput(events);
+                markPhase(FrameProfiler.Phase.HANDLE_INPUT);
+                current.update(elapsedTime);
+                markPhase(FrameProfiler.Phase.UPDATE);
             }
 
+            boolean presented;
             do {
-                gr.prepareFrame(state.getW(), state.getH());
-                state.render(gr);
-            } while (!gr.endFrame());
+                gr.prepareFrame(current.getW(), current.getH());
+                current.render(gr);
+                markPhase(FrameProfiler.Phase.RENDER);
+                presented = gr.endFrame();
+                markPhase(FrameProfiler.Phase.PRESENT);
+            } while (!presented);
+
+            // Trabajo diferido en el tiempo que sobra antes de dormir
+            scheduler.runFrame(currentTime + (long) TIME_PER_FRAME - TASK_MARGIN);
+            markPhase(FrameProfiler.Phase.TASKS);
+            profiler.endFrame();
+            if (allocationTracker != null) {
+                allocationTracker.endFrame();
+            }
 
             frames++;
 
             if (currentTime - informePrevio > 1_000_000_000L) {
                 long fps = frames * 1_000_000_000L / (currentTime - informePrevio);
-                //System.out.println("" + fps + " fps");
+                profiler.setFps((int) fps);
                 frames = 0;
                 informePrevio = currentTime;
             }
@@ -85,7 +135,34 @@ public class DesktopEngine implements Runnable, Engine {
         }
     }
 
-    private void realToLogic(TouchEvent e) {
+    // En Java 21+ la E/S usa un hilo virtual por tarea; si no existe, el ejecutor por defecto del JobSystem
+    private static JobSystem createJobSystem() {
+        try {
+            ExecutorService io = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new JobSystem(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), io);
+        } catch (ReflectiveOperationException e) {
+            return new JobSystem();
+        }
+    }
+
+    // Marca el final de una fase en el perfilador y, si está activo, en el medidor de reservas
+    private void markPhase(FrameProfiler.Phase phase) {
+        profiler.mark(phase);
+        DesktopAllocationTracker tracker = allocationTracker;
+        if (tracker != null) tracker.mark(phase);
+    }
+
+    // Activa la medición de reservas por frame (null para desactivarla)
+    public void setAllocationTracker(DesktopAllocationTracker tracker) {
+        this.allocationTracker = tracker;
+    }
+
+    public DesktopAllocationTracker getAllocationTracker() {
+        return allocationTracker;
+    }
+
+    private void realToLogic(TouchEvent e, State state) {
         int w = gr.getWidth();
         int h = gr.getHeight();
         float wProportion = (float) w / state.getW();
@@ -119,6 +196,7 @@ public class DesktopEngine implements Runnable, Engine {
         }
     }
 
+    // Para el bucle y, ya parado, termina el trabajo diferido pendiente del TaskScheduler
     public void pause() {
         if (this.running) {
             this.running = false;
@@ -132,6 +210,34 @@ public class DesktopEngine implements Runnable, Engine {
                 }
             }
         }
+        scheduler.runAll();
+    }
+
+    // Detiene el bucle, deja de vigilar los assets, para los hilos de trabajo y libera la ventana
+    public void stop() {
+        pause();
+        synchronized (watchers) {
+            for (DesktopAssetWatcher watcher : watchers) watcher.close();
+            watchers.clear();
+        }
+        jobs.shutdown(); // lo ya encolado (p. ej. un guardado) termina
+        gr.cleanup();
+    }
+
+    /* Vigila una carpeta de los assets sueltos ("levels") y llama a `listener` en el hilo del juego
+    con las rutas que cambien. Solo para desarrollo: con el paquete de assets devuelve false. */
+    public boolean watchAssets(String dir, DesktopAssetWatcher.Listener listener) {
+        if (assets.isPacked()) return false;
+        try {
+            DesktopAssetWatcher watcher = new DesktopAssetWatcher(assets.getRoot(), dir, jobs, listener);
+            synchronized (watchers) {
+                watchers.add(watcher);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("No se pueden vigilar los assets de " + dir + ": " + e.getMessage());
+            return false;
+        }
     }
 
     @Override
@@ -139,7 +245,6 @@ public class DesktopEngine implements Runnable, Engine {
         return gr;
     }
 
-    @Override
     public Input getInput() {
         return input;
     }
@@ -149,18 +254,67 @@ public class DesktopEngine implements Runnable, Engine {
         return audio;
     }
 
-    @java.lang.Override
-    public String getFilePath(String path) {
-        return null;
+    @Override
+    public FrameProfiler getProfiler() {
+        return profiler;
     }
 
-    @java.lang.Override
-    public void changeScene(State scene) {
+    @Override
+    public TaskScheduler getScheduler() {
+        return scheduler;
+    }
 
+    @Override
+    public JobSystem getJobs() {
+        return jobs;
+    }
+
+    @Override
+    public ResourceManager getResources() {
+        return resources;
+    }
+
+    @Override
+    public AsyncLoader getLoader() {
+        return loader;
+    }
+
+    // Clave aleatoria de los guardados, creada la primera vez en la carpeta del usuario
+    @Override
+    public synchronized SecretKey getSaveKey() {
+        if (saveKey == null) {
+            File file = getInternalFile(SAVE_KEY_FILE);
+            byte[] key = file.readBytes();
+            if (key == null || key.length != 32) {
+                key = new byte[32];
+                new SecureRandom().nextBytes(key);
+                file.writeBytes(key);
+            }
+            saveKey = new SecretKeySpec(key, "HmacSHA256");
+        }
+        return saveKey;
+    }
+
+    // Asset de solo lectura (del paquete o de los archivos sueltos)
+    @Override
+    public File getAssetsFile(String path) {
+        return new DesktopFile(assets, path);
     }
 
+    // Archivo de la carpeta de datos del usuario (~/.practica1), con escritura atómica
     @Override
-    public String getHashFromThis(String data) {
-        return "";
+    public File getInternalFile(String path) {
+        return new DesktopFile(dataDir.resolve(path));
+    }
+
+    // Contenido de una carpeta de assets (null si no existe)
+    @Override
+    public String[] getAssetsList(String path) {
+        return assets.list(path);
+    }
+
+    @Override
+    public void changeScene(State scene) {
+        this.state = scene; // se lee al principio del siguiente frame
     }
 }
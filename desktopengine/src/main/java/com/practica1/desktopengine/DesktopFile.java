@@ -0,0 +1,157 @@
+package com.practica1.desktopengine;
+
+import com.practica1.engine.AtomicOutputStream;
+import com.practica1.engine.File;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File del escritorio con canales de NIO. Puede ser un asset (solo lectura, a través de
+ * DesktopAssets: del paquete sin copias o del archivo suelto) o un archivo de la carpeta de datos
+ * del usuario, que se escribe de forma atómica con un temporal que se renombra sobre el destino.
+ */
+public class DesktopFile implements File {
+
+    private final String path; // ruta relativa (para los mensajes)
+    private final DesktopAssets assets; // null si es un archivo de datos
+    private final Path file; // null si es un asset
+
+    // Asset de solo lectura
+    public DesktopFile(DesktopAssets assets, String path) {
+        this.path = path;
+        this.assets = assets;
+        this.file = null;
+    }
+
+    // Archivo de datos (se puede escribir)
+    public DesktopFile(Path file) {
+        this.path = file.toString();
+        this.assets = null;
+        this.file = file;
+    }
+
+    // -- LECTURA --
+
+    @Override
+    public String getContent() {
+        byte[] data = readBytes();
+        return (data == null) ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    // Contenido entero (null si no existe)
+    @Override
+    public byte[] readBytes() {
+        try {
+            return (assets == null) ? Files.readAllBytes(file) : assets.readBytes(path);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.out.println("Error al leer " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public long size() {
+        if (assets != null) return assets.size(path);
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public ByteBuffer map() throws IOException {
+        if (assets != null) return assets.map(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // sigue vivo al cerrar el canal
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("No existe " + path);
+        }
+    }
+
+    @Override
+    public InputStream openInput() throws IOException {
+        if (assets != null) return assets.open(path);
+        try {
+            return Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("No existe " + path);
+        }
+    }
+
+    // -- ESCRITURA --
+
+    @Override
+    public void setContent(String data) {
+        writeBytes(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeBytes(byte[] data) {
+        try (AtomicOutputStream out = openOutput()) {
+            out.write(data);
+            out.commit();
+        } catch (IOException e) {
+            System.out.println("Error al escribir " + path + ", se conserva el contenido anterior: " + e.getMessage());
+        }
+    }
+
+    // Escribe en un temporal de la misma carpeta; commit() lo lleva al disco y lo renombra sobre el destino
+    @Override
+    public AtomicOutputStream openOutput() throws IOException {
+        Path target = writableFile();
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new AtomicOutputStream(Channels.newOutputStream(channel)) {
+            @Override
+            protected void publish() throws IOException {
+                try {
+                    channel.force(true); // que los datos estén en disco antes de renombrar
+                    channel.close();
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    discard();
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void discard() {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        };
+    }
+
+    @Override
+    public OutputStream openAppend() throws IOException {
+        Path target = writableFile();
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        return Channels.newOutputStream(FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    private Path writableFile() throws IOException {
+        if (file == null) throw new IOException("Los assets son de solo lectura: " + path);
+        return file;
+    }
+}
@@ -0,0 +1,60 @@
+package com.practica1.desktopengine;
+
+import java.awt.FontFormatException;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registro de fuentes del escritorio. Cada archivo TTF se lee, se parsea y se registra en el
+ * entorno grafico una sola vez; los distintos tamaños y estilos se derivan de esa fuente base
+ * con deriveFont, que no vuelve a leer el archivo.
+ */
+class DesktopFontRegistry {
+
+    private final DesktopAssets assets;
+    private final Map<String, java.awt.Font> baseFonts = new HashMap<>(); // ruta -> fuente base
+    private final Map<String, java.awt.Font> variants = new HashMap<>(); // ruta + tamaño + estilo -> fuente derivada
+    private final Map<String, Long> fileSizes = new HashMap<>(); // ruta -> bytes del archivo
+
+    DesktopFontRegistry(DesktopAssets assets) {
+        this.assets = assets;
+    }
+
+    synchronized java.awt.Font get(String file, float size, boolean bold, boolean italic) throws IOException, FontFormatException {
+        int style = java.awt.Font.PLAIN;
+        if (bold) style |= java.awt.Font.BOLD;
+        if (italic) style |= java.awt.Font.ITALIC;
+
+        String key = file + ":" + size + ":" + style;
+        java.awt.Font font = variants.get(key);
+        if (font == null) {
+            font = getBase(file).deriveFont(style, size);
+            variants.put(key, font);
+        }
+        return font;
+    }
+
+    // Tamaño del archivo de una fuente ya cargada (0 si no se conoce)
+    synchronized long getSize(String file) {
+        Long size = fileSizes.get(file);
+        return (size != null) ? size : 0;
+    }
+
+    private java.awt.Font getBase(String file) throws IOException, FontFormatException {
+        java.awt.Font base = baseFonts.get(file);
+        if (base == null) {
+            // El flujo se cierra siempre, aunque el archivo no sea una fuente valida
+            try (InputStream is = assets.open(file)) {
+                base = java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT, is);
+            }
+            // Registrar la fuente en el entorno gráfico (una vez por archivo)
+            GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(base);
+            baseFonts.put(file, base);
+            fileSizes.put(file, assets.size(file));
+        }
+        return base;
+    }
+}
@@ -1,17 +1,31 @@
 package com.practica1.desktopengine;
 
+import com.practica1.engine.AssetManifest;
+import com.practica1.engine.AsyncLoader;
 import com.practica1.engine.Color;
 import com.practica1.engine.Font;
 import com.practica1.engine.Graphics;
 import com.practica1.engine.Image;
+import com.practica1.engine.ImageHandle;
+import com.practica1.engine.ResourceManager;
 import java.awt.geom.AffineTransform;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.RenderingHints;
 import java.awt.image.BufferStrategy;
 import java.awt.FontFormatException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import javax.swing.JFrame;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -20,9 +34,23 @@ public class DesktopGraphics implements Graphics {
     private Graphics2D graphics2D;
     private JFrame myView;
     private BufferStrategy bufferStrategy;
-
-    public DesktopGraphics(JFrame myView) {
+    private ResourceManager resources; // cache compartida de imagenes y fuentes
+    private volatile float renderScale = 0; // escala logica -> pixeles del ultimo frame (0 si aun no hay)
+    private final DesktopAssets assets; // paquete de assets o carpeta de assets sueltos
+    private final DesktopFontRegistry fonts; // cada TTF se parsea una sola vez
+    private boolean acceleratedImages = true; // dibujar los sprites desde copias en memoria de video
+    private final AsyncLoader loader; // cargas en segundo plano
+    private static final java.awt.Color PLACEHOLDER_COLOR = new java.awt.Color(128, 128, 128, 64); // imagenes aun cargandose
+
+    private static final ResourceManager.Sizer<DesktopImage> IMAGE_SIZE = DesktopImage::getByteSize;
+    private static final ResourceManager.Disposer<DesktopImage> IMAGE_DISPOSER = DesktopImage::flush;
+
+    public DesktopGraphics(JFrame myView, ResourceManager resources, DesktopAssets assets, AsyncLoader loader) {
         this.myView = myView;
+        this.resources = resources;
+        this.assets = assets;
+        this.loader = loader;
+        this.fonts = new DesktopFontRegistry(assets);
         this.bufferStrategy = this.myView.getBufferStrategy();
         this.graphics2D = (Graphics2D) bufferStrategy.getDrawGraphics();
     }
@@ -37,6 +65,16 @@ public class DesktopGraphics implements Graphics {
         return !bufferStrategy.contentsLost();
     }
 
+    // Libera el frame a medias (si lo hay) y el BufferStrategy de la ventana
+    @Override
+    public void cleanup() {
+        if (graphics2D != null) {
+            graphics2D.dispose();
+            graphics2D = null;
+        }
+        bufferStrategy.dispose();
+    }
+
     @Override
     public void drawText(String text, Font font, int x, int y) {
         if (graphics2D != null && font != null) {
@@ -55,8 +93,14 @@ public class DesktopGraphics implements Graphics {
 
 
     public Font newFont(String filename, int size, boolean isBold, boolean isItalic) {
+        String key = "font:" + filename + ":" + size + ":" + isBold + ":" + isItalic;
+        return resources.acquire(key, () -> loadFont(filename, size, isBold, isItalic), DesktopFont::getByteSize, null); // la fuente base la guarda el registro
+    }
+
+    private DesktopFont loadFont(String filename, int size, boolean isBold, boolean isItalic) {
         try {
-            return new DesktopFont("data/assets/fonts/" + filename, size, isBold, isItalic);
+            String file = "fonts/" + filename;
+            return new DesktopFont(fonts.get(file, size, isBold, isItalic), fonts.getSize(file));
         } catch (FileNotFoundException e) {
             System.out.println("Archivo de fuente no encontrado: " + e.getMessage());
         } catch (FontFormatException e) {
@@ -71,7 +115,7 @@ public class DesktopGraphics implements Graphics {
     public DesktopImage loadImage(String path) {
         try {
             BufferedImage bufferedImage = ImageIO.read(new File(path));
-            return new DesktopImage(bufferedImage);
+            return new DesktopImage(toCompatible(bufferedImage));
         } catch (IOException e) {
             e.printStackTrace();
             return null;
@@ -91,6 +135,7 @@ public class DesktopGraphics implements Graphics {
         } else {
             scale = wProportion;
         }
+        renderScale = scale;
 
         // Calcular el offset para centrar el contenido
         int offsetX = (int) ((w - (logicW * scale)) / 2);
@@ -123,15 +168,28 @@ public class DesktopGraphics implements Graphics {
 
     @Override
     public void drawImageWithScale(Image image, int x, int y, float scaleX, float scaleY) {
+        if (image instanceof ImageHandle) {
+            ImageHandle handle = (ImageHandle) image;
+            if (!handle.isReady()) {
+                // aun cargandose: marcador del tamaño que tendra la imagen
+                java.awt.Color color = graphics2D.getColor();
+                graphics2D.setColor(PLACEHOLDER_COLOR);
+                graphics2D.fillRect(x, y, Math.round(handle.getWidth() * scaleX), Math.round(handle.getHeight() * scaleY));
+                graphics2D.setColor(color);
+                return;
+            }
+            image = handle.get();
+        }
         AffineTransform originalTransform = graphics2D.getTransform();  // Guarda la transformación original
 
         // Aplica la escala deseada y dibuja la imagen
         this.graphics2D.translate(x, y);
-        this.graphics2D.scale(scaleX, scaleY);
 
         if (image instanceof DesktopImage) {
             DesktopImage desktopImage = (DesktopImage) image;
-            this.graphics2D.drawImage(desktopImage.getBufferedImage(), 0, 0, null);
+            // si la imagen se cargo reducida se compensa para que ocupe lo mismo que la original
+            this.graphics2D.scale(scaleX / desktopImage.getDecodeScaleX(), scaleY / desktopImage.getDecodeScaleY());
+            desktopImage.draw(this.graphics2D, acceleratedImages);
         }
 
         // Restaura la transformación original para que no afecte a otros elementos
@@ -163,7 +221,6 @@ public class DesktopGraphics implements Graphics {
         this.graphics2D.drawRect(cx, cy, width, height);
     }
 
-    @Override
     public void drawRoundRectangle(int cx, int cy, int width, int height, int arc) {
         this.graphics2D.drawRoundRect(cx, cy, width, height, arc, arc);
     }
@@ -188,7 +245,6 @@ public class DesktopGraphics implements Graphics {
         this.graphics2D.drawPolygon(xPoints, yPoints, 6);
     }
 
-    @Override
     public void drawCircle(float cx, float cy, float radius) {
         this.graphics2D.drawOval((int) cx, (int) cy, (int) radius * 2, (int) radius * 2);
     }
@@ -203,12 +259,95 @@ public class DesktopGraphics implements Graphics {
 
     }
 
-    // Método para cargar una imagen desde el sistema de archivos
+    // Método para obtener una imagen (se lee una sola vez y se comparte entre escenas)
     public Image newImage(String filePath) {
-        String file = "data/assets/sprites/" + filePath;
-        try {
-            BufferedImage bufferedImage = ImageIO.read(new File(file));
-            return new DesktopImage(bufferedImage);
+        return resources.acquire("image:" + filePath, () -> readImage(filePath, 0, 0, 0, 0), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Imagen cargada al tamaño logico con el que se va a dibujar
+    @Override
+    public Image newImage(String filePath, int targetWidth, int targetHeight) {
+        float s = renderScale;
+        if (s <= 0) return newImage(filePath); // sin escala conocida se carga entera
+        String key = "image:" + filePath + "@" + targetWidth + "x" + targetHeight + "/" + Math.round(s * 100);
+        return resources.acquire(key, () -> readImage(filePath, 0, targetWidth, targetHeight, s), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Imagen cargada para dibujarse con una escala fija sobre su tamaño original
+    @Override
+    public Image newImage(String filePath, float drawScale) {
+        float s = renderScale;
+        if (s <= 0 || drawScale <= 0) return newImage(filePath);
+        String key = "image:" + filePath + "@" + drawScale + "/" + Math.round(s * 100);
+        return resources.acquire(key, () -> readImage(filePath, drawScale, 0, 0, s), IMAGE_SIZE, IMAGE_DISPOSER);
+    }
+
+    // Versiones en segundo plano: el handle se dibuja como un marcador hasta que la imagen esta lista
+    @Override
+    public ImageHandle loadImageAsync(String filePath) {
+        return loader.load(newHandle(filePath), () -> newImage(filePath));
+    }
+
+    @Override
+    public ImageHandle loadImageAsync(String filePath, int targetWidth, int targetHeight) {
+        return loader.load(newHandle(filePath), () -> newImage(filePath, targetWidth, targetHeight));
+    }
+
+    @Override
+    public ImageHandle loadImageAsync(String filePath, float drawScale) {
+        return loader.load(newHandle(filePath), () -> newImage(filePath, drawScale));
+    }
+
+    // el tamaño del marcador sale del manifiesto; sin el no se conoce hasta leer la imagen y no se dibuja
+    private ImageHandle newHandle(String filePath) {
+        AssetManifest.Entry entry = assets.getManifest().get("sprites/" + filePath);
+        return (entry != null) ? new ImageHandle(entry.getWidth(), entry.getHeight()) : new ImageHandle(0, 0);
+    }
+
+    /* Método para cargar una imagen desde el sistema de archivos. Si se conoce el tamaño en pixeles
+    con el que se va a dibujar, se lee submuestreada (dejando al menos el doble de ese tamaño) y se
+    reduce una sola vez con interpolacion bicubica, asi la imagen en memoria no es mayor de lo que se ve.
+    Si el sprite ya se redujo al compilar, la imagen mantiene el tamaño del original (del manifiesto). */
+    private DesktopImage readImage(String filePath, float drawScale, int targetWidth, int targetHeight, float scale) {
+        String file = "sprites/" + filePath;
+        // cache en memoria: ImageIO por defecto copiaria el flujo a un archivo temporal
+        try (InputStream is = assets.open(file); ImageInputStream in = new MemoryCacheImageInputStream(is)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Formato de imagen no soportado: " + file);
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                AssetManifest.Entry entry = assets.getManifest().get(file);
+                int originalWidth = (entry != null && entry.getWidth() > 0) ? entry.getWidth() : width;
+                int originalHeight = (entry != null && entry.getHeight() > 0) ? entry.getHeight() : height;
+                double reqWidth = (drawScale > 0 ? originalWidth * drawScale : targetWidth) * scale;
+                double reqHeight = (drawScale > 0 ? originalHeight * drawScale : targetHeight) * scale;
+                double factor = Math.max(reqWidth / width, reqHeight / height);
+                if (scale <= 0 || factor <= 0 || factor >= 1) {
+                    // hace falta entera
+                    return new DesktopImage(toCompatible(reader.read(0)), originalWidth, originalHeight);
+                }
+
+                int outWidth = Math.max(1, (int) Math.ceil(width * factor));
+                int outHeight = Math.max(1, (int) Math.ceil(height * factor));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, (int) Math.floor(1 / (2 * factor)));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage sampled = reader.read(0, param);
+
+                BufferedImage scaled = createImage(outWidth, outHeight);
+                Graphics2D g = scaled.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(sampled, 0, 0, outWidth, outHeight, null);
+                g.dispose();
+                sampled.flush();
+                return new DesktopImage(scaled, originalWidth, originalHeight);
+            } finally {
+                reader.dispose();
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return null;
@@ -217,6 +356,37 @@ public class DesktopGraphics implements Graphics {
 
 
 
+    // Activa o desactiva las copias en memoria de video de los sprites (las imagenes gestionadas se usan siempre)
+    public void setAcceleratedImages(boolean accelerated) {
+        this.acceleratedImages = accelerated;
+    }
+
+    /* ImageIO devuelve tipos propios o indexados que Java2D no puede copiar por el camino acelerado,
+    y entonces convierte los pixeles en cada drawImage. Se pasan una vez al formato de la pantalla. */
+    private BufferedImage toCompatible(BufferedImage image) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null || image.getColorModel().equals(gc.getColorModel(Transparency.TRANSLUCENT))) return image;
+        BufferedImage compatible = createImage(image.getWidth(), image.getHeight());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        image.flush();
+        return compatible;
+    }
+
+    // Imagen translucida en el formato de la pantalla (ARGB si no hay pantalla)
+    private BufferedImage createImage(int width, int height) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    private GraphicsConfiguration getGraphicsConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        GraphicsConfiguration gc = myView.getGraphicsConfiguration();
+        return (gc != null) ? gc : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
     public int getWidth() {
         return myView.getWidth();
     }
@@ -1,14 +1,29 @@
 package com.practica1.desktopengine;
 
 import com.practica1.engine.Image;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 
 public class DesktopImage implements Image {
     private BufferedImage bufferedImage;
+    private int width, height; // tamaño del archivo original (la imagen puede estar reducida)
+    private VolatileImage volatileImage; // copia en memoria de video; se puede perder en cualquier momento
+    private boolean volatileFailed = false; // la plataforma no da imagenes aceleradas: usar solo la gestionada
 
     // Constructor que recibe el BufferedImage cargado
     public DesktopImage(BufferedImage bufferedImage) {
+        this(bufferedImage, bufferedImage.getWidth(), bufferedImage.getHeight());
+    }
+
+    // Constructor para una imagen reducida respecto al archivo original
+    public DesktopImage(BufferedImage bufferedImage, int originalWidth, int originalHeight) {
         this.bufferedImage = bufferedImage;
+        this.width = originalWidth;
+        this.height = originalHeight;
     }
 
     // Método para obtener el BufferedImage
@@ -16,13 +31,82 @@ public class DesktopImage implements Image {
         return bufferedImage;
     }
 
+    // Bytes de la imagen en memoria (la copia en memoria de video no cuenta)
+    @Override
+    public long getByteSize() {
+        return 4L * bufferedImage.getWidth() * bufferedImage.getHeight();
+    }
+
+    // Relacion entre el tamaño en memoria y el original, para compensarla al dibujar
+    public double getDecodeScaleX() {
+        return (double) bufferedImage.getWidth() / width;
+    }
+
+    public double getDecodeScaleY() {
+        return (double) bufferedImage.getHeight() / height;
+    }
+
+    /* Dibuja la imagen en (0, 0) con la transformacion actual de g. Usa la copia en memoria de video
+    y, si la superficie se ha perdido (cambio de modo, minimizar, bloqueo de pantalla...), la vuelve
+    a rellenar desde el BufferedImage y repite. Si no se consigue se dibuja la imagen gestionada. */
+    void draw(Graphics2D g, boolean accelerated) {
+        if (!accelerated || volatileFailed) {
+            g.drawImage(bufferedImage, 0, 0, null);
+            return;
+        }
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            if (!validateVolatile(gc)) break;
+            g.drawImage(volatileImage, 0, 0, null);
+            if (!volatileImage.contentsLost()) return;
+        }
+        g.drawImage(bufferedImage, 0, 0, null);
+    }
+
+    // Crea o restaura la copia acelerada; false si no se puede usar
+    private boolean validateVolatile(GraphicsConfiguration gc) {
+        if (volatileImage == null || volatileImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (volatileImage != null) volatileImage.flush();
+            try {
+                volatileImage = gc.createCompatibleVolatileImage(bufferedImage.getWidth(), bufferedImage.getHeight(), Transparency.TRANSLUCENT);
+            } catch (RuntimeException e) {
+                volatileImage = null;
+            }
+            if (volatileImage == null) {
+                volatileFailed = true;
+                return false;
+            }
+            restoreVolatile();
+        } else if (volatileImage.contentsLost()) {
+            restoreVolatile();
+        }
+        return true;
+    }
+
+    // Vuelve a copiar los pixeles (con transparencia) a la copia acelerada
+    private void restoreVolatile() {
+        Graphics2D vg = volatileImage.createGraphics();
+        vg.setComposite(AlphaComposite.Src);
+        vg.drawImage(bufferedImage, 0, 0, null);
+        vg.dispose();
+    }
+
+    // Libera la imagen y su copia en memoria de video
+    void flush() {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        bufferedImage.flush();
+    }
+
     @Override
     public int getWidth() {
-        return bufferedImage.getWidth();
+        return width;
     }
 
     @Override
     public int getHeight() {
-        return bufferedImage.getHeight();
+        return height;
     }
 }
@@ -0,0 +1,53 @@
+package com.practica1.desktopengine;
+
+import com.practica1.engine.Mobile;
+import com.practica1.engine.RewardListener;
+
+import java.awt.Toolkit;
+
+/**
+ * Funciones del móvil en el escritorio. No hay anuncios, notificaciones, sensores ni aplicaciones con
+ * las que compartir: lo que la lógica necesita para seguir (la recompensa de un anuncio) se da en el
+ * momento y el resto se escribe en la consola.
+ */
+public class DesktopMobile implements Mobile {
+
+    @Override
+    public void makeNotification() {
+        System.out.println("Notificación (no disponible en escritorio)");
+    }
+
+    @Override
+    public void vibrateDevice(long duration) {
+        Toolkit.getDefaultToolkit().beep();
+    }
+
+    // Sin anuncios: la recompensa se concede directamente
+    @Override
+    public void showRewardedAd(RewardListener listener) {
+        if (listener != null) listener.onReward();
+    }
+
+    @Override
+    public void shareMessage(String title, String text) {
+        System.out.println(title + ": " + text);
+    }
+
+    @Override
+    public void scheduleNotificationWithWorkManager() {
+    }
+
+    @Override
+    public void shareImage(int level, int points) {
+        System.out.println("Nivel " + level + " completado con " + points + " puntos");
+    }
+
+    @Override
+    public boolean isRunningOnEmulator() {
+        return false;
+    }
+
+    @Override
+    public void unregisterSensorListener() {
+    }
+}
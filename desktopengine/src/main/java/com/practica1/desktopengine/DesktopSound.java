@@ -5,6 +5,7 @@ import javax.sound.sampled.Clip;
 
 public class DesktopSound implements Sound {
     private final Clip clip;
+    private volatile long playingUntil = 0; // System.nanoTime() en que acaba de sonar (MAX_VALUE en bucle)
 
     protected DesktopSound(Clip clip) {
         this.clip = clip;
@@ -14,4 +15,25 @@ public class DesktopSound implements Sound {
         return this.clip;
     }
 
+    // Apunta hasta cuándo suena, para que la caché no cierre el clip mientras tanto
+    void played(boolean loop) {
+        if (clip == null) return;
+        playingUntil = loop ? Long.MAX_VALUE : System.nanoTime() + clip.getMicrosecondLength() * 1000L;
+    }
+
+    void stopped() {
+        playingUntil = 0;
+    }
+
+    boolean isPlaying() {
+        return clip != null && (System.nanoTime() < playingUntil || clip.isRunning());
+    }
+
+    // Bytes de las muestras cargadas en el clip
+    @Override
+    public long getByteSize() {
+        if (clip == null) return 0;
+        return (long) clip.getFrameLength() * clip.getFormat().getFrameSize();
+    }
+
 }